@@ -0,0 +1,90 @@
+// Нагрузочный сценарий k6: каталог /cars и форма аренды /rentals/new при 2000 одновременных клиентах.
+// База заполняется профилем bulk-data (пользователи bulk-user-N с паролем password).
+//
+//   k6 run -e BASE_URL=http://localhost:8085 -e MODE=platform loadtest/pages.js
+//   k6 run -e BASE_URL=http://localhost:8085 -e MODE=virtual  loadtest/pages.js
+//
+// Переменные: VUS (2000), USERS — число bulk-пользователей (500000), CAR_ID_MAX — верхняя граница id машин (50000),
+// HOLD — длительность полки нагрузки (3m). Сравнение режимов — PERFORMANCE.md.
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+import { Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8085';
+const VUS = parseInt(__ENV.VUS || '2000');
+const USERS = parseInt(__ENV.USERS || '500000');
+const CAR_ID_MAX = parseInt(__ENV.CAR_ID_MAX || '50000');
+const PASSWORD = __ENV.PASSWORD || 'password';
+
+// ответы 503 от ConcurrencyLimitFilter: запрос отклонён, а не упал
+const rejected = new Counter('rejected_503');
+
+export const options = {
+    scenarios: {
+        pages: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '1m', target: VUS },
+                { duration: __ENV.HOLD || '3m', target: VUS },
+                { duration: '30s', target: 0 },
+            ],
+            gracefulRampDown: '30s',
+        },
+    },
+    tags: { mode: __ENV.MODE || 'platform' },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        'http_req_duration{page:cars}': ['p(99)<2000'],
+        'http_req_duration{page:rentals_new}': ['p(99)<2000'],
+        'checks': ['rate>0.95'],
+    },
+};
+
+function csrfToken(body) {
+    const match = /name="_csrf" value="([^"]+)"/.exec(body);
+    return match ? match[1] : '';
+}
+
+// каждый VU входит один раз под своим клиентом; bulk-user-N с N % 100 == 99 — менеджеры
+function login() {
+    let n = (__VU * 7919) % USERS;
+    if (n % 100 === 99) {
+        n -= 1;
+    }
+    const page = http.get(`${BASE_URL}/login`, { tags: { page: 'login' } });
+    const res = http.post(`${BASE_URL}/login`, {
+        username: `bulk-user-${n}`,
+        password: PASSWORD,
+        _csrf: csrfToken(page.body),
+    }, { redirects: 0, tags: { page: 'login' } });
+    return res.status === 302 && !String(res.headers.Location).includes('error');
+}
+
+function track(res, name) {
+    if (res.status === 503) {
+        rejected.add(1, { page: name });
+    }
+    check(res, { [`${name} 200`]: (r) => r.status === 200 });
+}
+
+// состояние модуля у каждого VU своё
+let loggedIn = false;
+
+export default function () {
+    if (!loggedIn) {
+        loggedIn = login();
+        if (!loggedIn) {
+            sleep(1);
+            return;
+        }
+    }
+
+    const page = Math.floor(Math.random() * 20);
+    track(http.get(`${BASE_URL}/cars?page=${page}`, { tags: { page: 'cars' } }), 'cars');
+    sleep(Math.random() * 2);
+
+    const carId = 1 + Math.floor(Math.random() * CAR_ID_MAX);
+    track(http.get(`${BASE_URL}/rentals/new?carId=${carId}`, { tags: { page: 'rentals_new' } }), 'rentals_new');
+    sleep(Math.random() * 2);
+}
@@ -0,0 +1,52 @@
+package com.example.rentapp.benchmark;
+
+import com.example.rentapp.RentappApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Запуск приложения для бенчмарков. По умолчанию — отдельная H2 в памяти на каждый прогон;
+ * для PostgreSQL передаются системные свойства форка, например
+ * -jvmArgsAppend "-Dbench.db.url=jdbc:postgresql://localhost:5432/rentapp_bench -Dbench.db.user=postgres -Dbench.db.password=postgres".
+ * База PostgreSQL должна быть отдельной: бенчмарки заполняют и очищают таблицы.
+ * Свойства передаются как аргументы командной строки, чтобы перекрывать application*.properties.
+ */
+final class BenchmarkContexts {
+
+    private BenchmarkContexts() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraProperties) {
+        return start(List.of(), extraProperties);
+    }
+
+    /** Профили добавляются к test, например prod */
+    static ConfigurableApplicationContext start(List<String> profiles, String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN"));
+        String url = System.getProperty("bench.db.url");
+        if (url == null) {
+            properties.add("spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID()
+                    + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        } else {
+            properties.add("spring.datasource.url=" + url);
+            properties.add("spring.datasource.username=" + System.getProperty("bench.db.user", "postgres"));
+            properties.add("spring.datasource.password=" + System.getProperty("bench.db.password", "postgres"));
+            properties.add("spring.datasource.driver-class-name=org.postgresql.Driver");
+            properties.add("spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect");
+        }
+        properties.addAll(List.of(extraProperties));
+
+        List<String> activeProfiles = new ArrayList<>(List.of("test"));
+        activeProfiles.addAll(profiles);
+        return new SpringApplicationBuilder(RentappApplication.class)
+                .profiles(activeProfiles.toArray(String[]::new))
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.rentapp.benchmark;
+
+import com.example.rentapp.entity.Car;
+import com.example.rentapp.service.CarService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CarServiceBenchmark {
+
+    @Param({"price", "brand"})
+    public String sortBy;
+
+    private CarService carService;
+
+    private List<Car> loadedCars;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededApplication application) {
+        carService = application.bean(CarService.class);
+        loadedCars = carService.findAll();
+    }
+
+    @Benchmark
+    public Page<Car> searchCars() {
+        return carService.searchCars("o", null, 40.0, 100.0, sortBy, "desc", 0, CarService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Car> sortCars() {
+        return carService.sortCars(loadedCars, sortBy, "desc");
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.rentapp.benchmark;
+
+import com.example.rentapp.entity.Car;
+import com.example.rentapp.entity.Rental;
+import com.example.rentapp.entity.User;
+import com.example.rentapp.repository.CarRepository;
+import com.example.rentapp.repository.RentalRepository;
+import com.example.rentapp.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность вставки аренд через JPA: rows сущностей в одной транзакции.
+ * jdbcBatchSize=1 — каждая строка отдельным запросом (как было с IDENTITY),
+ * 50 — пакеты JDBC, которые стали возможны с id из последовательностей.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class InsertBenchmark {
+
+    @Param({"1", "50"})
+    public int jdbcBatchSize;
+
+    @Param("1000")
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+
+    private RentalRepository rentalRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private Car car;
+
+    private User user;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContexts.start("spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize);
+        rentalRepository = context.getBean(RentalRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        String run = Long.toString(System.nanoTime(), 36);
+        user = new User();
+        user.setUsername("bench-insert-" + run);
+        user.setPassword("$2a$10$benchmark");
+        user.setEmail("bench-insert-" + run + "@rentapp.com");
+        user = context.getBean(UserRepository.class).save(user);
+
+        car = new Car();
+        car.setBrand("Bench");
+        car.setModel("Insert " + run);
+        car.setYear(2024);
+        car.setPricePerDay(new BigDecimal("50.00"));
+        car = context.getBean(CarRepository.class).save(car);
+    }
+
+    @Setup(Level.Iteration)
+    public void clean() {
+        jdbcTemplate.update("DELETE FROM rentals WHERE car_id = ?", car.getId());
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        clean();
+        jdbcTemplate.update("DELETE FROM cars WHERE id = ?", car.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+        context.close();
+    }
+
+    @Benchmark
+    public List<Rental> insertRentals() {
+        return transactionTemplate.execute(status -> {
+            LocalDate start = LocalDate.now();
+            List<Rental> rentals = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                Rental rental = new Rental();
+                rental.setCar(car);
+                rental.setUser(user);
+                rental.setStartDate(start.plusDays(i));
+                rental.setEndDate(start.plusDays(i + 1));
+                rental.setTotalPrice(car.getPricePerDay());
+                rentals.add(rental);
+            }
+            return rentalRepository.saveAll(rentals);
+        });
+    }
+}
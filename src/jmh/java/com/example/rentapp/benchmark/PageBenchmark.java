@@ -0,0 +1,126 @@
+package com.example.rentapp.benchmark;
+
+import com.example.rentapp.entity.User;
+import com.example.rentapp.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Страницы /cars и /rentals по HTTP от имени администратора в профиле по умолчанию и в prod
+ * (кэш шаблонов, без SQL-лога, сжатие ответа). Результаты — PERFORMANCE.md.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PageBenchmark {
+
+    private static final String PASSWORD = "bench-password";
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+
+    @Param({"default", "prod"})
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient http;
+
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException, InterruptedException {
+        // профиль test отключает SQL-лог, для сравнения возвращаем значения из application.properties
+        context = "prod".equals(profile)
+                ? BenchmarkContexts.start(List.of("prod"))
+                : BenchmarkContexts.start("spring.jpa.show-sql=true", "spring.jpa.properties.hibernate.format_sql=true");
+        SeededApplication.seed(context, 500, 5000, 50);
+
+        User admin = new User();
+        admin.setUsername("bench-page-admin");
+        admin.setPassword(PASSWORD);
+        admin.setEmail("bench-page-admin@rentapp.com");
+        admin.setFirstName("Bench");
+        admin.setLastName("Admin");
+        admin.setRole("ADMIN");
+        context.getBean(UserService.class).save(admin);
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        http = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        login(admin.getUsername());
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public byte[] carsPage() throws IOException, InterruptedException {
+        return get("/cars");
+    }
+
+    @Benchmark
+    public byte[] rentalsPage() throws IOException, InterruptedException {
+        return get("/rentals");
+    }
+
+    // как браузер: с Accept-Encoding, ответ не распаковывается
+    private byte[] get(String path) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " -> HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private void login(String username) throws IOException, InterruptedException {
+        String loginPage = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login")).GET().build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        Matcher csrf = CSRF.matcher(loginPage);
+        if (!csrf.find()) {
+            throw new IllegalStateException("На странице входа нет CSRF-токена");
+        }
+        String form = "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(PASSWORD, StandardCharsets.UTF_8)
+                + "&_csrf=" + URLEncoder.encode(csrf.group(1), StandardCharsets.UTF_8);
+        HttpResponse<Void> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build(), HttpResponse.BodyHandlers.discarding());
+        String location = response.headers().firstValue("Location").orElse("");
+        if (location.contains("error")) {
+            throw new IllegalStateException("Не удалось войти как " + username);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.rentapp.benchmark;
+
+import com.example.rentapp.config.CacheConfig;
+import com.example.rentapp.dto.PriceQuote;
+import com.example.rentapp.entity.Car;
+import com.example.rentapp.service.PricingEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PricingEngine без контекста Spring: тариф с выходными, сезоном и скидками,
+ * 1000 случайных периодов до 30 дней в пределах ближайшего года.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PricingBenchmark {
+
+    private static final int RANGES = 1000;
+
+    private PricingEngine pricingEngine;
+
+    private PricingEngine.Tariff tariff;
+
+    private final LocalDate[] starts = new LocalDate[RANGES];
+
+    private final LocalDate[] ends = new LocalDate[RANGES];
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pricingEngine = new PricingEngine(null, new ConcurrentMapCacheManager(CacheConfig.TARIFFS),
+                new BigDecimal("1.2"), List.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY),
+                new BigDecimal("1.3"), List.of("06-01..08-31", "12-25..01-08"),
+                List.of("7:5", "30:15"), 365);
+        Car car = new Car();
+        car.setId(1L);
+        car.setPricePerDay(new BigDecimal("55.00"));
+        tariff = pricingEngine.tariff(car);
+
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i < RANGES; i++) {
+            starts[i] = today.plusDays(random.nextInt(365));
+            ends[i] = starts[i].plusDays(1 + random.nextInt(30));
+        }
+    }
+
+    @Benchmark
+    public long totalMinor() {
+        int i = nextIndex();
+        return pricingEngine.totalMinor(tariff, starts[i], ends[i]);
+    }
+
+    @Benchmark
+    public PriceQuote quote() {
+        int i = nextIndex();
+        return pricingEngine.quote(tariff, starts[i], ends[i]);
+    }
+
+    /** Пакет из 1000 периодов, как POST /api/pricing/quotes без сериализации JSON */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long batchOf1000() {
+        long sum = 0;
+        for (int i = 0; i < RANGES; i++) {
+            sum += pricingEngine.totalMinor(tariff, starts[i], ends[i]);
+        }
+        return sum;
+    }
+
+    private int nextIndex() {
+        int i = next;
+        next = i + 1 == RANGES ? 0 : i + 1;
+        return i;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.rentapp.benchmark;
+
+import com.example.rentapp.dto.RentalListItemDto;
+import com.example.rentapp.entity.Car;
+import com.example.rentapp.service.PricingEngine;
+import com.example.rentapp.service.RentalService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RentalServiceBenchmark {
+
+    private RentalService rentalService;
+
+    private List<RentalListItemDto> clientRentals;
+
+    private PricingEngine pricingEngine;
+
+    private PricingEngine.Tariff tariff;
+
+    private LocalDate start;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededApplication application) {
+        rentalService = application.bean(RentalService.class);
+        clientRentals = rentalService.findListItemsByUser(application.client.getId(), null);
+
+        pricingEngine = application.bean(PricingEngine.class);
+        Car car = new Car();
+        car.setPricePerDay(new BigDecimal("55.00"));
+        tariff = pricingEngine.tariff(car);
+        // календарь PricingEngine строится от текущей даты, фиксированная дата со временем из него выпадет
+        start = LocalDate.now().plusDays(30);
+    }
+
+    @Benchmark
+    public Map<String, Long> buildStatusSummary() {
+        return rentalService.buildStatusSummary(clientRentals);
+    }
+
+    /** Цена при бронировании (раньше — Rental.calculateTotalPrice в @PrePersist/@PreUpdate) */
+    @Benchmark
+    public BigDecimal bookingPrice() {
+        return pricingEngine.price(tariff, start, start.plusDays(14));
+    }
+}
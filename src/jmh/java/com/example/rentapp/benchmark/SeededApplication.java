@@ -0,0 +1,150 @@
+package com.example.rentapp.benchmark;
+
+import com.example.rentapp.entity.Car;
+import com.example.rentapp.entity.CarCategory;
+import com.example.rentapp.entity.Rental;
+import com.example.rentapp.entity.User;
+import com.example.rentapp.repository.CarCategoryRepository;
+import com.example.rentapp.repository.CarRepository;
+import com.example.rentapp.repository.RentalRepository;
+import com.example.rentapp.repository.UserRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Приложение, заполненное данными заданного объёма (см. BenchmarkContexts).
+ * Поднимается один раз на прогон (trial) и общее для всех потоков бенчмарка.
+ */
+@State(Scope.Benchmark)
+public class SeededApplication {
+
+    private static final String[] BRANDS = {"Toyota", "Honda", "BMW", "Ford", "Mercedes", "Kia", "Audi", "Skoda"};
+    private static final String[] MODELS = {"Camry", "CR-V", "X5", "Focus", "E-Class", "Rio", "A6", "Octavia"};
+    private static final String[] STATUSES = {"PENDING", "CONFIRMED", "ACTIVE", "COMPLETED", "CANCELLED"};
+    private static final int BATCH = 500;
+
+    @Param("500")
+    public int cars;
+
+    @Param("5000")
+    public int rentals;
+
+    @Param("50")
+    public int clients;
+
+    public ConfigurableApplicationContext context;
+
+    /** Администратор, от имени которого строится панель */
+    public User admin;
+
+    /** Первый из клиентов: ему принадлежит примерно rentals / clients аренд */
+    public User client;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContexts.start();
+        Accounts accounts = seed(context, cars, rentals, clients);
+        admin = accounts.admin();
+        client = accounts.client();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /** Заполняет базу запущенного приложения; используется и бенчмарками со своим контекстом */
+    static Accounts seed(ConfigurableApplicationContext context, int cars, int rentals, int clients) {
+        // суффикс прогона, чтобы повторные прогоны на одной PostgreSQL не упирались в уникальные имена
+        String run = Long.toString(System.nanoTime(), 36);
+        CarCategoryRepository categoryRepository = context.getBean(CarCategoryRepository.class);
+        CarRepository carRepository = context.getBean(CarRepository.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        RentalRepository rentalRepository = context.getBean(RentalRepository.class);
+
+        List<CarCategory> categories = new ArrayList<>();
+        for (String name : List.of("Sedan", "SUV", "Luxury", "Economy")) {
+            CarCategory category = new CarCategory();
+            category.setName(name + "-" + run);
+            categories.add(category);
+        }
+        categories = categoryRepository.saveAll(categories);
+
+        User admin = userRepository.save(newUser("bench-admin-" + run, "ADMIN"));
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < Math.max(clients, 1); i++) {
+            users.add(newUser("bench-client-" + i + "-" + run, "CLIENT"));
+        }
+        users = userRepository.saveAll(users);
+        Accounts accounts = new Accounts(admin, users.get(0));
+
+        List<Car> fleet = new ArrayList<>();
+        for (int i = 0; i < cars; i++) {
+            Car car = new Car();
+            car.setBrand(BRANDS[i % BRANDS.length]);
+            car.setModel(MODELS[(i / BRANDS.length) % MODELS.length] + " " + i);
+            car.setYear(2015 + i % 10);
+            car.setPricePerDay(BigDecimal.valueOf(30 + (i * 7L) % 90));
+            car.setCategory(categories.get(i % categories.size()));
+            car.setStatus(i % 20 == 0 ? "MAINTENANCE" : "AVAILABLE");
+            fleet.add(car);
+        }
+        fleet = carRepository.saveAll(fleet);
+
+        if (fleet.isEmpty()) {
+            return accounts;
+        }
+        // аренды одной машины идут подряд и не пересекаются
+        LocalDate base = LocalDate.now().minusYears(1);
+        List<Rental> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < rentals; i++) {
+            Car car = fleet.get(i % fleet.size());
+            LocalDate start = base.plusDays((long) (i / fleet.size()) * 4);
+            Rental rental = new Rental();
+            rental.setCar(car);
+            rental.setUser(users.get(i % users.size()));
+            rental.setStartDate(start);
+            rental.setEndDate(start.plusDays(1 + i % 3));
+            rental.setTotalPrice(car.getPricePerDay().multiply(BigDecimal.valueOf(1 + i % 3)));
+            rental.setStatus(STATUSES[i % STATUSES.length]);
+            rental.setDepositPaid(i % 2 == 0);
+            batch.add(rental);
+            if (batch.size() == BATCH) {
+                rentalRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        rentalRepository.saveAll(batch);
+        return accounts;
+    }
+
+    record Accounts(User admin, User client) {
+    }
+
+    private static User newUser(String username, String role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("$2a$10$benchmark");
+        user.setEmail(username + "@rentapp.com");
+        user.setFirstName(username);
+        user.setLastName("Bench");
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.rentapp.benchmark;
+
+import com.example.rentapp.service.DashboardSnapshotCache;
+import com.example.rentapp.service.StatisticsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatisticsServiceBenchmark {
+
+    private StatisticsService statisticsService;
+
+    private DashboardSnapshotCache dashboardSnapshotCache;
+
+    private Long adminId;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededApplication application) {
+        statisticsService = application.bean(StatisticsService.class);
+        dashboardSnapshotCache = application.bean(DashboardSnapshotCache.class);
+        adminId = application.admin.getId();
+    }
+
+    /** Панель при живом снимке: только счётчики текущего пользователя */
+    @Benchmark
+    public Map<String, Object> dashboardStatistics() {
+        return statisticsService.getDashboardStatistics(adminId);
+    }
+
+    /** Панель с пересчётом общих показателей, как после изменения аренды */
+    @Benchmark
+    public Map<String, Object> dashboardStatisticsCold() {
+        dashboardSnapshotCache.invalidate();
+        return statisticsService.getDashboardStatistics(adminId);
+    }
+}
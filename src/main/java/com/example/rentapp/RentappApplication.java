@@ -2,8 +2,12 @@ package com.example.rentapp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.session.SessionAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// сессии по умолчанию в памяти узла; хранение в БД включает профиль jdbc-session (JdbcSessionConfig)
+@SpringBootApplication(exclude = SessionAutoConfiguration.class)
+@EnableScheduling
 public class RentappApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(RentappApplication.class, args);
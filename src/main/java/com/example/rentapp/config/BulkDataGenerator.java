@@ -0,0 +1,350 @@
+package com.example.rentapp.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Генератор большого синтетического набора данных для нагрузочного тестирования и бенчмарков.
+ * Включается профилем bulk-data, объёмы задаются в application-bulk-data.properties.
+ * Пишет пакетами JDBC в обход JPA; платежи и страховки создаются одним INSERT ... SELECT.
+ * Запускается после DataLoader, поэтому демо-учётки admin/manager остаются доступны.
+ */
+@Slf4j
+@Profile("bulk-data")
+@Order(2)
+@Component
+public class BulkDataGenerator implements CommandLineRunner {
+
+    private static final String USER_PREFIX = "bulk-user-";
+
+    // шаг последовательностей *_seq, совпадает с allocationSize в сущностях
+    private static final int ID_ALLOCATION = 50;
+
+    private static final String[] CATEGORY_NAMES = {
+            "Economy", "Sedan", "SUV", "Luxury", "Minivan", "Electric", "Convertible", "Pickup"
+    };
+
+    // марка, модель, индекс категории в CATEGORY_NAMES, базовая цена в сутки
+    private static final Object[][] MODELS = {
+            {"Kia", "Rio", 0, 30}, {"Hyundai", "Solaris", 0, 30}, {"Renault", "Logan", 0, 28},
+            {"Skoda", "Rapid", 0, 33}, {"Ford", "Focus", 0, 35}, {"Volkswagen", "Polo", 0, 34},
+            {"Toyota", "Camry", 1, 45}, {"Skoda", "Octavia", 1, 42}, {"Mazda", "6", 1, 48},
+            {"Honda", "CR-V", 2, 55}, {"Toyota", "RAV4", 2, 58}, {"Kia", "Sportage", 2, 52},
+            {"BMW", "X5", 3, 85}, {"Mercedes", "E-Class", 3, 95}, {"Audi", "A6", 3, 90},
+            {"Volkswagen", "Multivan", 4, 70}, {"Kia", "Carnival", 4, 65},
+            {"Tesla", "Model 3", 5, 75}, {"Nissan", "Leaf", 5, 45},
+            {"BMW", "Z4", 6, 110}, {"Toyota", "Hilux", 7, 60}
+    };
+
+    private static final String[] FIRST_NAMES = {
+            "Александр", "Мария", "Дмитрий", "Анна", "Сергей", "Елена", "Иван", "Ольга",
+            "Алексей", "Наталья", "Андрей", "Татьяна", "Михаил", "Ирина", "Никита", "Виктория"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Иванов", "Смирнов", "Кузнецов", "Попов", "Васильев", "Петров", "Соколов", "Михайлов",
+            "Новиков", "Федоров", "Морозов", "Волков", "Алексеев", "Лебедев", "Семенов", "Егоров"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final CacheManager cacheManager;
+
+    private final int categoryCount;
+    private final int carCount;
+    private final int userCount;
+    private final int rentalCount;
+    private final int batchSize;
+    private final long seed;
+    private final String password;
+
+    public BulkDataGenerator(JdbcTemplate jdbcTemplate,
+                             PasswordEncoder passwordEncoder,
+                             CacheManager cacheManager,
+                             @Value("${app.bulk-data.categories:8}") int categoryCount,
+                             @Value("${app.bulk-data.cars:50000}") int carCount,
+                             @Value("${app.bulk-data.users:500000}") int userCount,
+                             @Value("${app.bulk-data.rentals:5000000}") int rentalCount,
+                             @Value("${app.bulk-data.batch-size:1000}") int batchSize,
+                             @Value("${app.bulk-data.seed:42}") long seed,
+                             @Value("${app.bulk-data.password:password}") String password) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.cacheManager = cacheManager;
+        this.categoryCount = Math.max(categoryCount, 1);
+        this.carCount = carCount;
+        this.userCount = userCount;
+        this.rentalCount = rentalCount;
+        this.batchSize = Math.max(batchSize, 1);
+        this.seed = seed;
+        this.password = password;
+    }
+
+    @Override
+    public void run(String... args) {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE username = ?", Integer.class, USER_PREFIX + 0);
+        if (existing != null && existing > 0) {
+            log.info("Синтетические данные уже загружены, генерация пропущена");
+            return;
+        }
+
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed);
+        long carIdBefore = maxId("cars");
+        long rentalIdBefore = maxId("rentals");
+
+        List<Long> categoryIds = generateCategories();
+        generateCars(random, categoryIds);
+        generateUsers(random);
+        generateRentals(random, carIdBefore);
+        markRentedCars(carIdBefore);
+        generatePayments(rentalIdBefore);
+        generateInsurances(carIdBefore);
+        CacheConfig.clearAll(cacheManager);
+
+        log.info("Синтетические данные загружены за {} с", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started));
+    }
+
+    private List<Long> generateCategories() {
+        Map<String, Long> existing = new HashMap<>();
+        jdbcTemplate.query("SELECT id, name FROM car_categories",
+                rs -> {
+                    existing.put(rs.getString("name"), rs.getLong("id"));
+                });
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < categoryCount; i++) {
+            String name = i < CATEGORY_NAMES.length ? CATEGORY_NAMES[i] : "Class " + (i + 1);
+            Long id = existing.get(name);
+            if (id == null) {
+                jdbcTemplate.update("INSERT INTO car_categories (name, description) VALUES (?, ?)",
+                        name, "Сгенерированная категория " + name);
+                id = jdbcTemplate.queryForObject("SELECT id FROM car_categories WHERE name = ?", Long.class, name);
+            }
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    private void generateCars(SplittableRandom random, List<Long> categoryIds) {
+        BatchWriter batch = new BatchWriter("cars",
+                "INSERT INTO cars (id, brand, model, year_value, price_per_day, status, category_id, description, version) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)", carCount);
+        for (int i = 0; i < carCount; i++) {
+            Object[] model = MODELS[random.nextInt(MODELS.length)];
+            int categoryIndex = (Integer) model[2];
+            Long categoryId = categoryIndex < categoryIds.size()
+                    ? categoryIds.get(categoryIndex)
+                    : categoryIds.get(random.nextInt(categoryIds.size()));
+            // парк в основном моложе пяти лет; старые машины дешевле, разброс цены ±20%
+            int age = (int) (random.nextDouble() * random.nextDouble() * 12);
+            int year = LocalDate.now().getYear() - age;
+            double factor = (0.8 + random.nextDouble() * 0.4) * (1 - age * 0.03);
+            BigDecimal price = BigDecimal.valueOf((Integer) model[3] * factor).setScale(2, RoundingMode.HALF_UP);
+            String status = random.nextInt(100) < 4 ? "MAINTENANCE" : "AVAILABLE";
+            batch.add(model[0], model[1], year, price, status, categoryId,
+                    model[0] + " " + model[1] + " " + year + " года");
+        }
+        batch.flush();
+    }
+
+    private void generateUsers(SplittableRandom random) {
+        String encodedPassword = passwordEncoder.encode(password);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        BatchWriter batch = new BatchWriter("users",
+                "INSERT INTO users (id, username, password, email, first_name, last_name, phone, role, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", userCount);
+        for (int i = 0; i < userCount; i++) {
+            String username = USER_PREFIX + i;
+            String role = i % 100 == 99 ? "MANAGER" : "CLIENT";
+            String phone = String.format("+79%09d", random.nextInt(1_000_000_000));
+            Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now().minusMinutes(random.nextInt(3 * 365 * 24 * 60)));
+            batch.add(username, encodedPassword, username + "@example.com",
+                    FIRST_NAMES[random.nextInt(FIRST_NAMES.length)], LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    phone, role, createdAt, now);
+        }
+        batch.flush();
+    }
+
+    private void generateRentals(SplittableRandom random, long carIdBefore) {
+        List<Long> clientIds = jdbcTemplate.queryForList(
+                "SELECT id FROM users WHERE username LIKE ? AND role = 'CLIENT' ORDER BY id", Long.class, USER_PREFIX + "%");
+        List<Map<String, Object>> cars = jdbcTemplate.queryForList(
+                "SELECT id, price_per_day FROM cars WHERE id > ? ORDER BY id", carIdBefore);
+        if (clientIds.isEmpty() || cars.isEmpty() || rentalCount <= 0) {
+            return;
+        }
+
+        LocalDate today = LocalDate.now();
+        BatchWriter batch = new BatchWriter("rentals",
+                // цена без тарифов PricingEngine (цена дня × дни), поэтому версия 'legacy'
+                "INSERT INTO rentals (id, car_id, user_id, start_date, end_date, total_price, status, deposit_paid, created_at, version, pricing_version) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 'legacy')", rentalCount);
+        int perCar = rentalCount / cars.size();
+        int remainder = rentalCount % cars.size();
+        for (int c = 0; c < cars.size(); c++) {
+            Long carId = ((Number) cars.get(c).get("id")).longValue();
+            BigDecimal price = (BigDecimal) cars.get(c).get("price_per_day");
+            int rentalsForCar = perCar + (c < remainder ? 1 : 0);
+
+            // аренды одной машины идут подряд без пересечений и заканчиваются около сегодняшнего дня
+            LocalDate cursor = today.minusDays(rentalsForCar * 7L).plusDays(random.nextInt(60));
+            for (int r = 0; r < rentalsForCar; r++) {
+                cursor = cursor.plusDays(random.nextInt(5));
+                int days = rentalDays(random);
+                LocalDate start = cursor;
+                LocalDate end = start.plusDays(days);
+                cursor = end;
+
+                String status = rentalStatus(random, today, start, end);
+                boolean depositPaid = !"PENDING".equals(status)
+                        && (!"CANCELLED".equals(status) || random.nextInt(100) < 30);
+                // немногие постоянные клиенты дают заметную долю аренд
+                Long userId = clientIds.get((int) (clientIds.size() * Math.pow(random.nextDouble(), 1.5)));
+                LocalDateTime createdAt = start.atStartOfDay()
+                        .minusDays(1 + random.nextInt(30))
+                        .plusMinutes(random.nextInt(24 * 60));
+
+                batch.add(carId, userId, Date.valueOf(start), Date.valueOf(end),
+                        price.multiply(BigDecimal.valueOf(days)), status, depositPaid, Timestamp.valueOf(createdAt));
+            }
+        }
+        batch.flush();
+    }
+
+    /** 1–30 суток, большинство аренд короче недели */
+    private static int rentalDays(SplittableRandom random) {
+        double sample = -Math.log(1 - random.nextDouble()) * 4;
+        return (int) Math.min(30, 1 + sample);
+    }
+
+    private static String rentalStatus(SplittableRandom random, LocalDate today, LocalDate start, LocalDate end) {
+        if (!end.isAfter(today)) {
+            return random.nextInt(100) < 88 ? "COMPLETED" : "CANCELLED";
+        }
+        if (!start.isAfter(today)) {
+            return "ACTIVE";
+        }
+        return random.nextBoolean() ? "CONFIRMED" : "PENDING";
+    }
+
+    private void markRentedCars(long carIdBefore) {
+        int updated = jdbcTemplate.update(
+                "UPDATE cars SET status = 'RENTED' WHERE id > ? AND status = 'AVAILABLE' "
+                        + "AND EXISTS (SELECT 1 FROM rentals r WHERE r.car_id = cars.id AND r.status = 'ACTIVE')",
+                carIdBefore);
+        log.info("cars: {} помечено как RENTED", updated);
+    }
+
+    private void generatePayments(long rentalIdBefore) {
+        int deposits = jdbcTemplate.update(
+                "INSERT INTO payments (rental_id, amount, payment_date, payment_method, status) "
+                        + "SELECT r.id, 5000, r.created_at, 'DEPOSIT', 'COMPLETED' "
+                        + "FROM rentals r WHERE r.id > ? AND r.deposit_paid = TRUE",
+                rentalIdBefore);
+        int settlements = jdbcTemplate.update(
+                "INSERT INTO payments (rental_id, amount, payment_date, payment_method, status) "
+                        + "SELECT r.id, r.total_price, CAST(r.end_date AS TIMESTAMP), 'CARD', 'COMPLETED' "
+                        + "FROM rentals r WHERE r.id > ? AND r.status = 'COMPLETED'",
+                rentalIdBefore);
+        log.info("payments: {} залогов, {} оплат завершённых аренд", deposits, settlements);
+    }
+
+    private void generateInsurances(long carIdBefore) {
+        int inserted = jdbcTemplate.update(
+                "INSERT INTO insurances (car_id, insurance_company, policy_number, coverage_type, start_date, end_date, premium_amount) "
+                        + "SELECT c.id, "
+                        + "CASE MOD(c.id, 5) WHEN 0 THEN 'Ингосстрах' WHEN 1 THEN 'РЕСО-Гарантия' "
+                        + "WHEN 2 THEN 'АльфаСтрахование' WHEN 3 THEN 'Согласие' ELSE 'Тинькофф Страхование' END, "
+                        + "'GEN-' || c.id, "
+                        + "CASE WHEN c.price_per_day >= 70 THEN 'КАСКО + ОСАГО' ELSE 'ОСАГО' END, "
+                        + "CURRENT_DATE - MOD(c.id, 300), CURRENT_DATE - MOD(c.id, 300) + 365, "
+                        + "c.price_per_day * 12 "
+                        + "FROM cars c WHERE c.id > ?",
+                carIdBefore);
+        log.info("insurances: {} полисов", inserted);
+    }
+
+    private long maxId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    /**
+     * Копит строки и отправляет их одним JDBC-пакетом по batchSize штук.
+     * Первым параметром подставляет id из последовательности таблицы блоками по ID_ALLOCATION,
+     * так же как Hibernate (pooled): nextval — верхняя граница блока.
+     */
+    private class BatchWriter {
+        private final String table;
+        private final String sql;
+        private final int total;
+        private final List<Object[]> rows = new ArrayList<>();
+        private final long started = System.nanoTime();
+        private long written;
+        private long nextReport;
+        private long nextId;
+        private long blockEnd = -1;
+
+        BatchWriter(String table, String sql, int total) {
+            this.table = table;
+            this.sql = sql;
+            this.total = total;
+            this.nextReport = Math.max(total / 10, batchSize);
+        }
+
+        void add(Object... values) {
+            Object[] row = new Object[values.length + 1];
+            row[0] = nextId();
+            System.arraycopy(values, 0, row, 1, values.length);
+            rows.add(row);
+            if (rows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        private long nextId() {
+            if (nextId > blockEnd) {
+                Long hi = jdbcTemplate.queryForObject("SELECT nextval('" + table + "_seq')", Long.class);
+                blockEnd = hi;
+                nextId = hi - ID_ALLOCATION + 1;
+            }
+            return nextId++;
+        }
+
+        void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate(sql, rows);
+            written += rows.size();
+            rows.clear();
+            if (written >= nextReport || written == total) {
+                long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                log.info("{}: {} / {} ({} строк/с)", table, written, total, written * 1000 / millis);
+                nextReport = written + Math.max(total / 10, batchSize);
+            }
+        }
+    }
+}
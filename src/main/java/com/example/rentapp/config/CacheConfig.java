@@ -0,0 +1,89 @@
+package com.example.rentapp.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Кэши справочных данных каталога и учётных записей (Caffeine).
+ * Сброс выполняется после коммита транзакции (TransactionAwareCacheManagerProxy), статистика попаданий
+ * публикуется в метрики cache.gets / cache.puts / cache.evictions (/actuator/metrics).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Список категорий, один ключ */
+    public static final String CATEGORIES = "categories";
+
+    /** Выборки каталога: страницы доступных машин и витрина главной (CarView), счётчики */
+    public static final String CAR_CATALOG = "carCatalog";
+
+    /** Неизменяемое представление автомобиля (CarView) по id, с названием категории */
+    public static final String CARS = "cars";
+
+    /** Тариф автомобиля для PricingEngine (цены по классам дней в копейках) */
+    public static final String TARIFFS = "tariffs";
+
+    /** Неизменяемый снимок пользователя (CurrentUser) по id для UserService.getCurrentUser */
+    public static final String USERS = "users";
+
+    /** UserDetails по имени пользователя для DaoAuthenticationProvider */
+    public static final String USER_DETAILS = "userDetails";
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(CATEGORIES, Caffeine.newBuilder()
+                .maximumSize(10)
+                .expireAfterWrite(Duration.ofHours(1))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(CAR_CATALOG, Caffeine.newBuilder()
+                .maximumSize(20)
+                .expireAfterWrite(Duration.ofMinutes(5))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(CARS, Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(TARIFFS, Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(USERS, Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(USER_DETAILS, Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .recordStats()
+                .build());
+        // только перечисленные кэши: опечатка в имени должна падать, а не создавать новый кэш
+        cacheManager.setCacheNames(List.of());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    /** Полный сброс: для загрузчиков данных, пишущих в обход CarService */
+    public static void clearAll(CacheManager cacheManager) {
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.rentapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение числа одновременно обрабатываемых запросов (app.concurrency.limit-enabled, по умолчанию
+ * выключено: предел не проверен нагрузочным прогоном, см. PERFORMANCE.md).
+ * С виртуальными потоками Tomcat принимает тысячи запросов сразу, и все они встали бы в очередь
+ * к пулу соединений; лишние запросы ждут разрешения не дольше acquire-timeout-ms и получают 503.
+ * Стоит раньше Spring Session и Spring Security, которые тоже обращаются к БД.
+ * <p>
+ * Предел по умолчанию — два запроса на соединение пула HikariCP. Open-in-view выключен, и запрос
+ * держит соединение только на время транзакций; пока один рендерит шаблон, соединение занимает
+ * другой, а в очереди к пулу ждёт не больше одного запроса на соединение.
+ * app.concurrency.max-in-flight задаёт предел явно. Разрешение держится до конца ответа, поэтому
+ * потоковые выгрузки предел не расходуют: иначе несколько долгих выгрузок заняли бы его целиком.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "app.concurrency.limit-enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    static final int REQUESTS_PER_CONNECTION = 2;
+
+    // статика из src/main/resources/static и проверка живости не обращаются к БД;
+    // выгрузка /admin/export стримит ответ минутами, доступна только ADMIN
+    private static final List<String> UNLIMITED_PREFIXES =
+            List.of("/css/", "/js/", "/images/", "/favicon.ico", "/actuator/health", "/admin/export/");
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+    private final Counter rejected;
+
+    public ConcurrencyLimitFilter(@Value("${app.concurrency.max-in-flight:0}") int maxInFlight,
+                                  @Value("${app.concurrency.acquire-timeout-ms:1000}") long acquireTimeoutMillis,
+                                  ObjectProvider<DataSource> dataSource,
+                                  MeterRegistry meterRegistry) {
+        int limit = maxInFlight > 0 ? maxInFlight : poolSize(dataSource.getIfAvailable()) * REQUESTS_PER_CONNECTION;
+        this.permits = new Semaphore(limit);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.rejected = Counter.builder("http.server.requests.rejected")
+                .description("Запросы, отклонённые с 503 из-за предела одновременной обработки")
+                .register(meterRegistry);
+        Gauge.builder("http.server.requests.in.flight", permits, p -> limit - p.availablePermits())
+                .description("Запросы, обрабатываемые сейчас")
+                .register(meterRegistry);
+        log.info("Предел одновременных запросов: {}, ожидание {} мс", limit, acquireTimeoutMillis);
+    }
+
+    // размер пула уже выставлен DataSourcePoolConfig; без HikariCP — та же формула ядра * 2 + 1
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.debug("Размер пула соединений не определён: {}", e.toString());
+        }
+        return Runtime.getRuntime().availableProcessors() * 2 + 1;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return UNLIMITED_PREFIXES.stream().anyMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            reject(response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // без шаблона ошибки: под перегрузкой рендеринг страницы только добавил бы работы
+    private void reject(HttpServletResponse response) throws IOException {
+        rejected.increment();
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", "1");
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("Сервер перегружен, повторите запрос через секунду");
+    }
+}
@@ -2,9 +2,12 @@ package com.example.rentapp.config;
 
 import com.example.rentapp.entity.*;
 import com.example.rentapp.repository.*;
+import com.example.rentapp.service.PricingEngine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -12,6 +15,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Profile("!test")
+@Order(1)
 @Component
 public class DataLoader implements CommandLineRunner {
 
@@ -22,11 +26,15 @@ public class DataLoader implements CommandLineRunner {
     @Autowired private PaymentRepository paymentRepository;
     @Autowired private InsuranceRepository insuranceRepository;
     @Autowired private PasswordEncoder passwordEncoder;
+    @Autowired private CacheManager cacheManager;
+    @Autowired private PricingEngine pricingEngine;
 
     @Override
     public void run(String... args) throws Exception {
         if (userRepository.count() == 0) {
             loadSampleData();
+            // приложение уже принимает запросы и могло закэшировать пустой каталог
+            CacheConfig.clearAll(cacheManager);
         }
     }
 
@@ -118,7 +126,8 @@ public class DataLoader implements CommandLineRunner {
         rental.setStartDate(startDate);
         rental.setEndDate(endDate);
         rental.setStatus(status);
-        rental.calculateTotalPrice();
+        rental.setTotalPrice(pricingEngine.price(pricingEngine.tariff(car), startDate, endDate));
+        rental.setPricingVersion(pricingEngine.getVersion());
         if ("CONFIRMED".equals(status) || "ACTIVE".equals(status)) {
             car.setStatus("RENTED");
             carRepository.save(car);
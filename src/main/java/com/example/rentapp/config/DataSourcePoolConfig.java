@@ -0,0 +1,40 @@
+package com.example.rentapp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+/**
+ * Размер пула HikariCP в профилях prod и virtual-threads: ядра * 2 + 1 (формула из рекомендаций
+ * HikariCP/PostgreSQL), пул фиксированный — minimumIdle равен максимуму. Заданный явно
+ * spring.datasource.hikari.maximum-pool-size не переопределяется.
+ * С виртуальными потоками пул не увеличивается: очередь к нему ограничивает ConcurrencyLimitFilter.
+ */
+@Slf4j
+@Configuration
+@Profile({"prod", "virtual-threads"})
+public class DataSourcePoolConfig {
+
+    private static final String MAX_POOL_SIZE_PROPERTY = "spring.datasource.hikari.maximum-pool-size";
+
+    @Bean
+    public static BeanPostProcessor hikariPoolSizer(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                        && !environment.containsProperty(MAX_POOL_SIZE_PROPERTY)) {
+                    int poolSize = Runtime.getRuntime().availableProcessors() * 2 + 1;
+                    dataSource.setMaximumPoolSize(poolSize);
+                    dataSource.setMinimumIdle(poolSize);
+                    log.info("Пул соединений {}: {} соединений", dataSource.getPoolName(), poolSize);
+                }
+                return bean;
+            }
+        };
+    }
+}
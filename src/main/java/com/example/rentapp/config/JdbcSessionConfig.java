@@ -0,0 +1,35 @@
+package com.example.rentapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.session.FlushMode;
+import org.springframework.session.config.SessionRepositoryCustomizer;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.session.jdbc.config.annotation.web.http.EnableJdbcHttpSession;
+
+import java.time.Duration;
+
+/**
+ * Spring Session в таблицах spring_session / spring_session_attributes (миграция V5), профиль jdbc-session:
+ * любой узел за балансировщиком видит сессию, привязка клиента к узлу не нужна.
+ * Без профиля сессии остаются в памяти узла — автоконфигурация сессий исключена в RentappApplication.
+ * Атрибуты пишутся в БД только при изменении (ON_SAVE), а не на каждый запрос.
+ */
+@Configuration
+@Profile("jdbc-session")
+@EnableJdbcHttpSession(flushMode = FlushMode.ON_SAVE)
+public class JdbcSessionConfig {
+
+    // атрибуты аннотации плейсхолдеры не разрешают, поэтому время жизни и очистка — из свойств здесь
+    @Bean
+    public SessionRepositoryCustomizer<JdbcIndexedSessionRepository> jdbcSessionSettings(
+            @Value("${app.session.timeout:30m}") Duration timeout,
+            @Value("${app.session.jdbc.cleanup-cron:0 */5 * * * *}") String cleanupCron) {
+        return repository -> {
+            repository.setDefaultMaxInactiveInterval(timeout);
+            repository.setCleanupCron(cleanupCron);
+        };
+    }
+}
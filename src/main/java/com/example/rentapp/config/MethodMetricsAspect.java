@@ -0,0 +1,88 @@
+package com.example.rentapp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Таймеры всех методов сервисов (app.service) и репозиториев Spring Data (app.repository)
+ * с тегами class, method и exception. Гистограммы для p95/p99 в Prometheus включены
+ * в application.properties (management.metrics.distribution.*).
+ * Вызовы внутри одного сервиса (this.method()) не замеряются — они идут мимо прокси.
+ */
+@Aspect
+@Component
+public class MethodMetricsAspect {
+
+    public static final String SERVICE_TIMER = "app.service";
+    public static final String REPOSITORY_TIMER = "app.repository";
+
+    private final MeterRegistry meterRegistry;
+
+    // таймер успешных вызовов по классу и методу: без поиска в реестре на каждый вызов
+    private final Map<Class<?>, Map<Method, Timer>> timers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    public MethodMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("within(@org.springframework.stereotype.Service *) && !@annotation(com.example.rentapp.config.Untimed)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?> type = ClassUtils.getUserClass(joinPoint.getTarget());
+        return time(SERVICE_TIMER, type, type.getSimpleName(), joinPoint);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?> type = joinPoint.getTarget().getClass();
+        return time(REPOSITORY_TIMER, type, repositoryNames.computeIfAbsent(type, MethodMetricsAspect::repositoryName), joinPoint);
+    }
+
+    private Object time(String name, Class<?> type, String className, ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable ex) {
+            timer(name, className, method.getName(), ex.getClass().getSimpleName())
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw ex;
+        }
+        timers.computeIfAbsent(type, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, key -> timer(name, className, key.getName(), "none"))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    private Timer timer(String name, String className, String method, String exception) {
+        return Timer.builder(name)
+                .tag("class", className)
+                .tag("method", method)
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+
+    // репозиторий — JDK-прокси, имя берётся из интерфейса приложения (CarRepository), а не из CrudRepository
+    private static String repositoryName(Class<?> proxyClass) {
+        for (Class<?> candidate : ClassUtils.getAllInterfacesForClassAsSet(proxyClass)) {
+            if (Repository.class.isAssignableFrom(candidate)
+                    && !candidate.getName().startsWith("org.springframework.")) {
+                return candidate.getSimpleName();
+            }
+        }
+        return proxyClass.getSimpleName();
+    }
+}
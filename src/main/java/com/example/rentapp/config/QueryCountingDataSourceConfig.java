@@ -0,0 +1,35 @@
+package com.example.rentapp.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Оборачивает DataSource в datasource-proxy, чтобы SqlStatementCounter видел каждое выражение,
+ * в том числе выполненное в обход Hibernate. Обёртка ставится после инициализации пула:
+ * настройка Hikari (DataSourcePoolConfig) видит исходный HikariDataSource, а метрики hikaricp.*
+ * получают его через unwrap.
+ */
+@Configuration
+public class QueryCountingDataSourceConfig {
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourceWrapper() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new SqlStatementCounter())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
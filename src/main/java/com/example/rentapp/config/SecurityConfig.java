@@ -1,13 +1,21 @@
 package com.example.rentapp.config;
 
+import com.example.rentapp.security.CustomUserDetails;
 import com.example.rentapp.security.CustomUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.cache.SpringCacheBasedUserCache;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -21,7 +29,33 @@ public class SecurityConfig {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * Actuator для сборщика метрик: только HTTP Basic, без сессии и формы входа.
+     * Остальные адреса Basic не принимают (см. securityFilterChain).
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher("/actuator/**")
+                .authorizeHttpRequests(authz -> authz
+                        .requestMatchers("/actuator/health").permitAll()
+                        .anyRequest().hasRole("ADMIN")
+                )
+                .httpBasic(Customizer.withDefaults())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // без сессии нет и CSRF: каждый запрос несёт учётные данные сам
+                .csrf(csrf -> csrf.disable())
+                .authenticationProvider(authenticationProvider());
+
+        return http.build();
+    }
+
     @Bean
+    @Order(2)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .authorizeHttpRequests(authz -> authz
@@ -41,7 +75,11 @@ public class SecurityConfig {
                         .permitAll()
                 )
                 .csrf(csrf -> csrf
-                        .ignoringRequestMatchers("/h2-console/**")
+                        // /api/pricing ничего не меняет и принимает только application/json: чужая страница
+                        // не отправит такой POST без CORS-preflight (его приложение не разрешает), а обычная
+                        // форма (text/plain, form-urlencoded) получит 415. Объём работы ограничен
+                        // app.pricing.max-batch-size и app.pricing.max-days
+                        .ignoringRequestMatchers("/h2-console/**", "/api/pricing/**")
                 )
                 .headers(headers -> headers.frameOptions(frame -> frame.sameOrigin()))
                 .logout(logout -> logout
@@ -61,9 +99,20 @@ public class SecurityConfig {
 
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
+        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider() {
+            // экземпляр из кэша не трогаем, в сессию кладём его копию без хеша пароля
+            @Override
+            protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                                 UserDetails user) {
+                Object sessionPrincipal = principal instanceof CustomUserDetails details
+                        ? details.withoutPassword() : principal;
+                return super.createSuccessAuthentication(sessionPrincipal, authentication, user);
+            }
+        };
         authProvider.setUserDetailsService(customUserDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        // повторные входы без запроса к users; сбрасывается в UserService.save/deleteById
+        authProvider.setUserCache(new SpringCacheBasedUserCache(cacheManager.getCache(CacheConfig.USER_DETAILS)));
         return authProvider;
     }
 
@@ -0,0 +1,122 @@
+package com.example.rentapp.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Счётчик SQL-выражений, выполненных в текущем потоке через DataSource приложения
+ * (Hibernate, JdbcTemplate, Spring Session); подключается в QueryCountingDataSourceConfig.
+ * Пакет (batch) считается одним обращением к БД.
+ * Считать удобно через {@link #open(boolean)}: область видит только свои выражения,
+ * а тексты запоминаются, пока открыта хотя бы одна область с record = true.
+ */
+public class SqlStatementCounter implements QueryExecutionListener {
+
+    private static final ThreadLocal<Stats> STATS = ThreadLocal.withInitial(Stats::new);
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\?(?:\\s*,\\s*\\?)+\\)");
+
+    private static final class Stats {
+        private long count;
+        private List<String> statements;
+        private int recorders;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Stats stats = STATS.get();
+        stats.count++;
+        if (stats.statements != null) {
+            for (QueryInfo query : queryInfoList) {
+                stats.statements.add(query.getQuery());
+            }
+        }
+    }
+
+    public static Scope open(boolean record) {
+        Stats stats = STATS.get();
+        if (record) {
+            if (stats.statements == null) {
+                stats.statements = new ArrayList<>();
+            }
+            stats.recorders++;
+        }
+        return new Scope(stats, stats.count, record ? stats.statements.size() : -1);
+    }
+
+    /**
+     * Выражения, сгруппированные по отпечатку (литералы и списки параметров заменены на ?),
+     * по убыванию числа повторов: N+1 виден как один отпечаток с большим счётчиком
+     */
+    public static Map<String, Long> fingerprints(List<String> statements) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String sql : statements) {
+            counts.merge(fingerprint(sql), 1L, Long::sum);
+        }
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    public static String fingerprint(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ");
+        normalized = PARAMETER_LIST.matcher(normalized).replaceAll("(?)");
+        return normalized.trim().toLowerCase();
+    }
+
+    /** Выражения текущего потока с момента открытия области */
+    public static final class Scope implements AutoCloseable {
+
+        private final Stats stats;
+        private final long startCount;
+        private final int startIndex;
+        private boolean closed;
+
+        private Scope(Stats stats, long startCount, int startIndex) {
+            this.stats = stats;
+            this.startCount = startCount;
+            this.startIndex = startIndex;
+        }
+
+        public int count() {
+            return (int) (stats.count - startCount);
+        }
+
+        /** Тексты выражений; пусто, если область открыта без record */
+        public List<String> statements() {
+            if (startIndex < 0 || stats.statements == null) {
+                return List.of();
+            }
+            return List.copyOf(stats.statements.subList(startIndex, stats.statements.size()));
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (startIndex >= 0 && --stats.recorders == 0) {
+                stats.statements = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.rentapp.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Метрика http.server.requests.sql: число SQL-выражений на HTTP-запрос с тегами method и uri
+ * (шаблон пути, как у http.server.requests). Рост max или p99 для одного uri — признак N+1.
+ * Учитывает и запросы Spring Security (загрузка пользователя), поэтому стоит перед ней.
+ * При app.sql.budget.max-statements > 0 (профиль staging) запрос сверх бюджета пишется в лог
+ * вместе с отпечатками выражений.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    public static final String METRIC = "http.server.requests.sql";
+
+    private final MeterRegistry meterRegistry;
+    private final int maxStatements;
+
+    public SqlStatementMetricsFilter(MeterRegistry meterRegistry,
+                                     @Value("${app.sql.budget.max-statements:0}") int maxStatements) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open(maxStatements > 0);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            try (scope) {
+                int count = scope.count();
+                String uri = uri(request);
+                DistributionSummary.builder(METRIC)
+                        .description("SQL-выражения на один HTTP-запрос")
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri)
+                        .register(meterRegistry)
+                        .record(count);
+                if (maxStatements > 0 && count > maxStatements) {
+                    log.warn("{} {} ({}): {} SQL-выражений при бюджете {}{}", request.getMethod(),
+                            request.getRequestURI(), uri, count, maxStatements, describe(scope));
+                }
+            }
+        }
+    }
+
+    private static String describe(SqlStatementCounter.Scope scope) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Long> entry : SqlStatementCounter.fingerprints(scope.statements()).entrySet()) {
+            text.append("\n  ").append(entry.getValue()).append(" × ").append(entry.getKey());
+        }
+        return text.toString();
+    }
+
+    // без шаблона (404, отказ фильтра безопасности) — один общий тег, чтобы не плодить серии по путям
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.rentapp.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Метод сервиса без таймера MethodMetricsAspect: вызывается на каждый элемент пакета,
+ * и замер стоил бы дороже самого метода
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Untimed {
+}
@@ -1,5 +1,6 @@
 package com.example.rentapp.controller;
 
+import com.example.rentapp.dto.CurrentUser;
 import com.example.rentapp.entity.User;
 import com.example.rentapp.service.StatisticsService;
 import com.example.rentapp.service.UserService;
@@ -55,7 +56,7 @@ public class AdminController {
     @PostMapping("/users/{id}/delete")
     public String deleteUser(@PathVariable Long id, RedirectAttributes redirectAttributes) {
         try {
-            User currentUser = userService.getCurrentUser();
+            CurrentUser currentUser = userService.getCurrentUser();
             if (currentUser != null && currentUser.getId().equals(id)) {
                 redirectAttributes.addFlashAttribute("errorMessage", "Нельзя удалить самого себя!");
                 return "redirect:/admin/users";
@@ -1,16 +1,21 @@
 package com.example.rentapp.controller;
 
+import com.example.rentapp.dto.CarView;
 import com.example.rentapp.entity.Car;
 import com.example.rentapp.entity.CarCategory;
 import com.example.rentapp.service.CarService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,13 +41,17 @@ public class CarController {
                            @RequestParam(required = false) Double minPrice,
                            @RequestParam(required = false) Double maxPrice,
                            @RequestParam(required = false) String sortBy,
-                           @RequestParam(required = false) String direction) {
+                           @RequestParam(required = false) String direction,
+                           @RequestParam(defaultValue = "0") int page,
+                           @RequestParam(defaultValue = "" + CarService.DEFAULT_PAGE_SIZE) int size) {
 
-        var cars = carService.searchCars(brand, modelName, minPrice, maxPrice);
-        cars = carService.sortCars(cars, sortBy, direction);
+        Page<Car> carsPage = carService.searchCars(brand, modelName, minPrice, maxPrice,
+                sortBy, direction, page, size);
 
         model.addAttribute("pageTitle", "Каталог автомобилей");
-        model.addAttribute("cars", cars);
+        Page<CarView> views = carsPage.map(CarView::from);
+        model.addAttribute("cars", views.getContent());
+        model.addAttribute("carsPage", views);
         model.addAttribute("searchBrand", brand);
         model.addAttribute("searchModel", modelName);
         model.addAttribute("minPrice", minPrice);
@@ -53,9 +62,22 @@ public class CarController {
     }
 
     @GetMapping("/available")
-    public String availableCars(Model model) {
+    public String availableCars(Model model,
+                                @RequestParam(required = false)
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                @RequestParam(required = false)
+                                @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                @RequestParam(defaultValue = "0") int page,
+                                @RequestParam(defaultValue = "" + CarService.DEFAULT_PAGE_SIZE) int size) {
         model.addAttribute("pageTitle", "Доступные автомобили");
-        model.addAttribute("cars", carService.findAvailableCars());
+        Page<CarView> carsPage = startDate != null && endDate != null && startDate.isBefore(endDate)
+                ? carService.findAvailableBetween(startDate, endDate, page, size)
+                : carService.findAvailableCars(page, size);
+        model.addAttribute("cars", carsPage.getContent());
+        model.addAttribute("carsPage", carsPage);
+        model.addAttribute("availabilitySearch", true);
+        model.addAttribute("startDate", startDate);
+        model.addAttribute("endDate", endDate);
         model.addAttribute("searchBrand", null);
         model.addAttribute("searchModel", null);
         return "cars/list";
@@ -63,7 +85,7 @@ public class CarController {
 
     @GetMapping("/{id}")
     public String viewCar(@PathVariable Long id, Model model) {
-        Optional<Car> car = carService.findById(id);
+        Optional<CarView> car = carService.findViewById(id);
         if (car.isPresent()) {
             model.addAttribute("pageTitle", car.get().getFullName());
             model.addAttribute("car", car.get());
@@ -151,7 +173,13 @@ public class CarController {
         }
 
         car.setId(id);
-        carService.save(car);
+        try {
+            carService.save(car);
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            redirectAttributes.addFlashAttribute("errorMessage",
+                    "Автомобиль был изменён другим пользователем. Обновите страницу и повторите.");
+            return "redirect:/cars/" + id;
+        }
         redirectAttributes.addFlashAttribute("successMessage", "Автомобиль успешно обновлён!");
         return "redirect:/cars";
     }
@@ -174,4 +202,20 @@ public class CarController {
         redirectAttributes.addFlashAttribute("successMessage", message);
         return "redirect:/cars";
     }
-}
\ No newline at end of file
+
+    @PostMapping("/bulk-status")
+    @PreAuthorize("hasAnyRole('ADMIN','MANAGER')")
+    public String bulkUpdateStatus(@RequestParam String status,
+                                   @RequestParam(required = false) String fromStatus,
+                                   @RequestParam(required = false) Long categoryId,
+                                   RedirectAttributes redirectAttributes) {
+        try {
+            int updated = carService.bulkUpdateStatus(categoryId, fromStatus, status);
+            redirectAttributes.addFlashAttribute("successMessage",
+                    "Статус " + status.toUpperCase() + " установлен для автомобилей: " + updated);
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return "redirect:/cars";
+    }
+}
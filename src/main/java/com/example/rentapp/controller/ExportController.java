@@ -0,0 +1,73 @@
+package com.example.rentapp.controller;
+
+import com.example.rentapp.service.RentalExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Выгрузка для финансов: /admin/export/rentals?format=csv|ndjson&from=&to=&status=&gzip=true.
+ * Ответ пишется по мере чтения из БД, без буферизации всей выгрузки.
+ */
+@Controller
+@RequestMapping("/admin/export")
+@PreAuthorize("hasRole('ADMIN')")
+public class ExportController {
+
+    private final RentalExportService rentalExportService;
+
+    public ExportController(RentalExportService rentalExportService) {
+        this.rentalExportService = rentalExportService;
+    }
+
+    @GetMapping("/rentals")
+    public void exportRentals(@RequestParam(defaultValue = "csv") String format,
+                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                              @RequestParam(name = "status", required = false) List<String> statuses,
+                              @RequestParam(defaultValue = "false") boolean gzip,
+                              HttpServletResponse response) throws IOException {
+        RentalExportService.Format exportFormat = parseFormat(format);
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Дата окончания раньше даты начала");
+        }
+
+        String filename = "rentals." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString());
+
+        RentalExportService.Filter filter = new RentalExportService.Filter(from, to, statuses);
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            try (GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024)) {
+                rentalExportService.export(filter, exportFormat, compressed);
+            }
+        } else {
+            rentalExportService.export(filter, exportFormat, out);
+            out.flush();
+        }
+    }
+
+    private static RentalExportService.Format parseFormat(String format) {
+        try {
+            return RentalExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Формат выгрузки: csv или ndjson");
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.example.rentapp.controller;
 
-import com.example.rentapp.entity.Car;
-import com.example.rentapp.entity.User;
+import com.example.rentapp.dto.CurrentUser;
 import com.example.rentapp.service.CarService;
 import com.example.rentapp.service.StatisticsService;
 import com.example.rentapp.service.UserService;
@@ -11,7 +10,6 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Controller
@@ -37,16 +35,16 @@ public class MainController {
 
     @GetMapping("/")
     public String home(Model model) {
-        List<Car> availableCars = carService.findAvailableCars();
         model.addAttribute("pageTitle", "Аренда автомобилей");
-        model.addAttribute("availableCars", availableCars);
+        model.addAttribute("featuredCars", carService.findFeaturedCars());
+        model.addAttribute("availableCount", carService.getAvailableCarsCount());
         model.addAttribute("totalCars", carService.getTotalCars());
         return "home";
     }
 
     @GetMapping("/dashboard")
     public String dashboard(Model model) {
-        User currentUser = userService.getCurrentUser();
+        CurrentUser currentUser = userService.getCurrentUser();
         if (currentUser == null) {
             return "redirect:/login";
         }
@@ -55,13 +53,13 @@ public class MainController {
         model.addAttribute("currentUser", currentUser);
         Map<String, Object> stats;
         try {
-            stats = statisticsService.getDashboardStatistics(currentUser);
+            stats = statisticsService.getDashboardStatistics(currentUser.getId());
         } catch (Exception ex) {
             stats = new HashMap<>();
             stats.put("totalUsers", 0L);
             stats.put("totalCars", 0L);
             stats.put("availableCars", 0L);
-            stats.put("totalRentals", 0);
+            stats.put("totalRentals", 0L);
             stats.put("pendingRentals", 0L);
             stats.put("activeRentals", 0L);
             stats.put("completedRentals", 0L);
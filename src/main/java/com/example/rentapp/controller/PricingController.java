@@ -0,0 +1,74 @@
+package com.example.rentapp.controller;
+
+import com.example.rentapp.dto.PriceQuote;
+import com.example.rentapp.dto.QuoteRequest;
+import com.example.rentapp.service.PricingEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Расчёт стоимости аренды в JSON: для формы бронирования и пакетного расчёта.
+ * Состояние не меняет и принимает тело только как application/json, поэтому POST принимается
+ * без CSRF-токена (обоснование — SecurityConfig). Периоды проверяет PricingEngine.checkPeriod:
+ * слишком длинный или вне календаря — 400.
+ */
+@RestController
+@RequestMapping("/api/pricing")
+public class PricingController {
+
+    private final PricingEngine pricingEngine;
+    private final int maxBatchSize;
+
+    public PricingController(PricingEngine pricingEngine,
+                             @Value("${app.pricing.max-batch-size:10000}") int maxBatchSize) {
+        this.pricingEngine = pricingEngine;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @GetMapping("/quote")
+    public PriceQuote quote(@RequestParam Long carId,
+                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return pricingEngine.quote(tariff(carId), startDate, endDate);
+    }
+
+    @PostMapping(value = "/quotes", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<PriceQuote> quotes(@RequestBody QuoteRequest request) {
+        List<QuoteRequest.DateRange> ranges = request.ranges() != null ? request.ranges() : List.of();
+        if (ranges.size() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Не больше " + maxBatchSize + " периодов за запрос");
+        }
+        PricingEngine.Tariff tariff = tariff(request.carId());
+        List<PriceQuote> quotes = new ArrayList<>(ranges.size());
+        for (QuoteRequest.DateRange range : ranges) {
+            if (range.startDate() == null || range.endDate() == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "У периода не указаны даты");
+            }
+            quotes.add(pricingEngine.quote(tariff, range.startDate(), range.endDate()));
+        }
+        return quotes;
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ProblemDetail badDates(IllegalArgumentException ex) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    private PricingEngine.Tariff tariff(Long carId) {
+        if (carId == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Не указан автомобиль");
+        }
+        return pricingEngine.findTariff(carId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Автомобиль не найден"));
+    }
+}
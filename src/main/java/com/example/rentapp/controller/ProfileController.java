@@ -1,10 +1,10 @@
 package com.example.rentapp.controller;
 
+import com.example.rentapp.dto.CurrentUser;
 import com.example.rentapp.entity.User;
 import com.example.rentapp.service.RentalService;
 import com.example.rentapp.service.UserService;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -21,19 +21,16 @@ public class ProfileController {
 
     private final UserService userService;
     private final RentalService rentalService;
-    private final PasswordEncoder passwordEncoder;
 
     public ProfileController(UserService userService,
-                             RentalService rentalService,
-                             PasswordEncoder passwordEncoder) {
+                             RentalService rentalService) {
         this.userService = userService;
         this.rentalService = rentalService;
-        this.passwordEncoder = passwordEncoder;
     }
 
     @GetMapping
     public String profile(Model model) {
-        User currentUser = userService.getCurrentUser();
+        CurrentUser currentUser = userService.getCurrentUser();
         if (currentUser == null) {
             return "redirect:/login";
         }
@@ -45,15 +42,11 @@ public class ProfileController {
     @PostMapping("/update")
     public String updateProfile(@ModelAttribute User userForm,
                                 RedirectAttributes redirectAttributes) {
-        User currentUser = userService.getCurrentUser();
+        CurrentUser currentUser = userService.getCurrentUser();
 
         if (currentUser != null) {
-            currentUser.setFirstName(userForm.getFirstName());
-            currentUser.setLastName(userForm.getLastName());
-            currentUser.setEmail(userForm.getEmail());
-            currentUser.setPhone(userForm.getPhone());
-
-            userService.save(currentUser);
+            userService.updateProfile(currentUser.getId(), userForm.getFirstName(), userForm.getLastName(),
+                    userForm.getEmail(), userForm.getPhone());
             redirectAttributes.addFlashAttribute("successMessage", "Профиль успешно обновлен!");
         } else {
             redirectAttributes.addFlashAttribute("errorMessage", "Пользователь не найден!");
@@ -67,18 +60,13 @@ public class ProfileController {
                                  @RequestParam String newPassword,
                                  @RequestParam String confirmPassword,
                                  RedirectAttributes redirectAttributes) {
-        User currentUser = userService.getCurrentUser();
+        CurrentUser currentUser = userService.getCurrentUser();
 
         if (currentUser == null) {
             redirectAttributes.addFlashAttribute("errorMessage", "Пользователь не найден!");
             return "redirect:/profile";
         }
 
-        if (!passwordEncoder.matches(currentPassword, currentUser.getPassword())) {
-            redirectAttributes.addFlashAttribute("errorMessage", "Пароль неверный");
-            return "redirect:/profile";
-        }
-
         if (!newPassword.equals(confirmPassword)) {
             redirectAttributes.addFlashAttribute("errorMessage", "Пароль не совпадает");
             return "redirect:/profile";
@@ -89,8 +77,10 @@ public class ProfileController {
             return "redirect:/profile";
         }
 
-        currentUser.setPassword(passwordEncoder.encode(newPassword));
-        userService.save(currentUser);
+        if (!userService.changePassword(currentUser.getId(), currentPassword, newPassword)) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Пароль неверный");
+            return "redirect:/profile";
+        }
 
         redirectAttributes.addFlashAttribute("successMessage", "Пароль сменен успешно!");
         return "redirect:/profile";
@@ -100,7 +90,7 @@ public class ProfileController {
     public String updateDriverLicense(@RequestParam String driverLicenseSeries,
                                       @RequestParam String driverLicenseNumber,
                                       RedirectAttributes redirectAttributes) {
-        User currentUser = userService.getCurrentUser();
+        CurrentUser currentUser = userService.getCurrentUser();
         if (currentUser == null) {
             redirectAttributes.addFlashAttribute("errorMessage", "Пользователь не найден.");
             return "redirect:/profile";
@@ -124,9 +114,7 @@ public class ProfileController {
             return "redirect:/profile";
         }
 
-        currentUser.setDriverLicenseSeries(series);
-        currentUser.setDriverLicenseNumber(number);
-        userService.save(currentUser);
+        userService.updateDriverLicense(currentUser.getId(), series, number);
 
         redirectAttributes.addFlashAttribute("successMessage", "Водительское удостоверение сохранено.");
         return "redirect:/profile";
@@ -137,7 +125,7 @@ public class ProfileController {
                              @RequestParam String cardExpiry,
                              @RequestParam String cardCvc,
                              RedirectAttributes redirectAttributes) {
-        User currentUser = userService.getCurrentUser();
+        CurrentUser currentUser = userService.getCurrentUser();
         if (currentUser == null) {
             redirectAttributes.addFlashAttribute("errorMessage", "Пользователь не найден.");
             return "redirect:/profile";
@@ -171,9 +159,7 @@ public class ProfileController {
         }
 
         String last4 = digits.substring(digits.length() - 4);
-        currentUser.setCardLast4(last4);
-        currentUser.setCardExpiry(formatExpiry(expiry));
-        userService.save(currentUser);
+        userService.updateCard(currentUser.getId(), last4, formatExpiry(expiry));
 
         redirectAttributes.addFlashAttribute("successMessage", "Карта успешно привязана.");
         return "redirect:/profile";
@@ -189,10 +175,10 @@ public class ProfileController {
         return "redirect:/profile";
     }
 
-    private void populateProfileModel(Model model, User currentUser) {
+    private void populateProfileModel(Model model, CurrentUser currentUser) {
         model.addAttribute("pageTitle", "Мой профиль");
         model.addAttribute("user", currentUser);
-        model.addAttribute("rentals", rentalService.findByUserId(currentUser.getId()));
+        model.addAttribute("rentals", rentalService.findListItemsByUser(currentUser.getId(), null));
     }
 
     private YearMonth parseExpiry(String rawExpiry) {
@@ -1,16 +1,19 @@
 package com.example.rentapp.controller;
 
+import com.example.rentapp.dto.CarView;
+import com.example.rentapp.dto.CurrentUser;
+import com.example.rentapp.dto.RentalListItemDto;
+import com.example.rentapp.dto.RentalListPage;
 import com.example.rentapp.dto.RentalRequestDto;
-import com.example.rentapp.entity.Car;
 import com.example.rentapp.entity.Insurance;
 import com.example.rentapp.entity.Rental;
-import com.example.rentapp.entity.User;
 import com.example.rentapp.service.CarService;
 import com.example.rentapp.service.InsuranceService;
 import com.example.rentapp.service.PaymentService;
 import com.example.rentapp.service.RentalService;
 import com.example.rentapp.service.UserService;
 import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
@@ -31,6 +34,8 @@ import java.util.Map;
 public class RentalController {
 
     private static final BigDecimal DEPOSIT_AMOUNT = new BigDecimal("5000");
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
 
     private final RentalService rentalService;
     private final UserService userService;
@@ -54,9 +59,11 @@ public class RentalController {
     @PreAuthorize("isAuthenticated()")
     public String listRentals(@RequestParam(required = false) String status,
                               @RequestParam(required = false) Long userId,
+                              @RequestParam(required = false) String cursor,
+                              @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
                               Model model) {
 
-        User currentUser = userService.getCurrentUser();
+        CurrentUser currentUser = userService.getCurrentUser();
         if (currentUser == null) {
             return "redirect:/login";
         }
@@ -67,23 +74,27 @@ public class RentalController {
         }
 
         boolean isClient = "CLIENT".equalsIgnoreCase(currentUser.getRole());
-        List<Rental> rentals;
+        List<RentalListItemDto> rentals;
+        String nextCursor = null;
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
         try {
-            rentals = resolveRentals(normalizedStatus, userId, currentUser, isClient);
-            if (rentals == null) {
-                rentals = List.of();
-            }
-            if (!isClient) {
-                rentals = rentals.stream()
-                        .filter(r -> r != null && (!"PENDING".equalsIgnoreCase(r.getStatus()) || Boolean.TRUE.equals(r.getDepositPaid())))
-                        .toList();
+            if (isClient) {
+                rentals = rentalService.findListItemsByUser(currentUser.getId(), normalizedStatus);
+            } else {
+                RentalListPage page = rentalService.findManagerPage(normalizedStatus, userId, cursor, pageSize);
+                rentals = page.getItems();
+                nextCursor = page.getNextCursor();
             }
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         } catch (Exception e) {
             rentals = List.of();
         }
         Map<String, Long> statusSummary;
         try {
-            statusSummary = rentalService.buildStatusSummary(rentals);
+            statusSummary = isClient
+                    ? rentalService.buildStatusSummary(rentals)
+                    : rentalService.countVisibleByStatus();
         } catch (Exception e) {
             statusSummary = new HashMap<>();
         }
@@ -92,13 +103,16 @@ public class RentalController {
         model.addAttribute("statusFilter", normalizedStatus != null ? normalizedStatus : "ALL");
         model.addAttribute("selectedUserId", userId);
         model.addAttribute("statusSummary", statusSummary);
+        model.addAttribute("cursor", cursor);
+        model.addAttribute("nextCursor", nextCursor);
+        model.addAttribute("pageSize", pageSize);
         return "rentals/list";
     }
 
     @GetMapping("/new")
     @PreAuthorize("hasRole('CLIENT')")
     public String showCreateForm(@RequestParam("carId") Long carId, Model model) {
-        Car car = carService.findById(carId)
+        CarView car = carService.findViewById(carId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Автомобиль не найден"));
 
         RentalRequestDto requestDto = new RentalRequestDto();
@@ -121,12 +135,12 @@ public class RentalController {
                                RedirectAttributes redirectAttributes,
                                Model model) {
 
-        User currentUser = userService.getCurrentUser();
+        CurrentUser currentUser = userService.getCurrentUser();
         if (currentUser == null) {
             return "redirect:/login";
         }
 
-        Car car = carService.findById(rentalRequest.getCarId())
+        CarView car = carService.findViewById(rentalRequest.getCarId())
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Автомобиль не найден"));
 
         if (!bindingResult.hasErrors()) {
@@ -166,7 +180,7 @@ public class RentalController {
     public String showDeposit(@PathVariable Long id,
                               Model model,
                               RedirectAttributes redirectAttributes) {
-        User currentUser = userService.getCurrentUser();
+        CurrentUser currentUser = userService.getCurrentUser();
         if (currentUser == null) {
             return "redirect:/login";
         }
@@ -181,7 +195,7 @@ public class RentalController {
             return "redirect:/profile";
         }
 
-        Rental rental = rentalService.findById(id)
+        Rental rental = rentalService.findWithCarById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Rental not found"));
         if (rental.getUser() == null || !rental.getUser().getId().equals(currentUser.getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Access denied");
@@ -197,6 +211,11 @@ public class RentalController {
             return "redirect:/rentals";
         }
 
+        if (paymentService.isDepositInProgress(rental.getId())) {
+            redirectAttributes.addFlashAttribute("successMessage", "Оплата депозита уже обрабатывается.");
+            return "redirect:/rentals";
+        }
+
         model.addAttribute("rental", rental);
         model.addAttribute("depositAmount", DEPOSIT_AMOUNT);
         return "rentals/deposit";
@@ -206,7 +225,7 @@ public class RentalController {
     @PreAuthorize("hasRole('CLIENT')")
     public String confirmDeposit(@PathVariable Long id,
                                  RedirectAttributes redirectAttributes) {
-        User currentUser = userService.getCurrentUser();
+        CurrentUser currentUser = userService.getCurrentUser();
         if (currentUser == null) {
             return "redirect:/login";
         }
@@ -237,11 +256,14 @@ public class RentalController {
             return "redirect:/rentals";
         }
 
-        rental.setDepositPaid(true);
-        rentalService.save(rental);
-        paymentService.createPayment(rental.getId(), DEPOSIT_AMOUNT, "DEPOSIT");
+        // списание проводит PaymentOutboxWorker, депозит отмечается оплаченным после ответа шлюза
+        try {
+            paymentService.requestDeposit(rental.getId(), DEPOSIT_AMOUNT);
+        } catch (DataIntegrityViolationException ex) {
+            // форма отправлена дважды одновременно: запрос уже в очереди
+        }
 
-        redirectAttributes.addFlashAttribute("successMessage", "Депозит успешно оплачен.");
+        redirectAttributes.addFlashAttribute("successMessage", "Оплата депозита принята в обработку. Статус обновится через несколько секунд.");
         return "redirect:/rentals";
     }
 
@@ -249,7 +271,7 @@ public class RentalController {
     @PreAuthorize("hasRole('CLIENT')")
     public String cancelDeposit(@PathVariable Long id,
                                 RedirectAttributes redirectAttributes) {
-        User currentUser = userService.getCurrentUser();
+        CurrentUser currentUser = userService.getCurrentUser();
         if (currentUser == null) {
             return "redirect:/login";
         }
@@ -324,29 +346,6 @@ public class RentalController {
         return "redirect:/rentals";
     }
 
-    private List<Rental> resolveRentals(String status,
-                                        Long userId,
-                                        User currentUser,
-                                        boolean isClient) {
-        if (isClient) {
-            return status != null
-                    ? rentalService.findByUserIdAndStatus(currentUser.getId(), status)
-                    : rentalService.findByUserId(currentUser.getId());
-        }
-
-        if (userId != null) {
-            return status != null
-                    ? rentalService.findByUserIdAndStatus(userId, status)
-                    : rentalService.findByUserId(userId);
-        }
-
-        if (status != null) {
-            return rentalService.findByStatus(status);
-        }
-
-        return rentalService.findAll();
-    }
-
     private void addInsuranceInfo(Model model, Long carId) {
         Insurance insurance = insuranceService.findByCarId(carId).stream()
                 .findFirst()
@@ -0,0 +1,33 @@
+package com.example.rentapp.dto;
+
+import com.example.rentapp.entity.Car;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Неизменяемое представление автомобиля для кэша cars: карточка, форма аренды и тариф
+ * PricingEngine. Для изменения автомобиля загружается сущность (CarService.findById).
+ */
+@Value
+public class CarView {
+    Long id;
+    String brand;
+    String model;
+    Integer year;
+    BigDecimal pricePerDay;
+    String status;
+    String categoryName;
+    String description;
+    String imageUrl;
+
+    public static CarView from(Car car) {
+        return new CarView(car.getId(), car.getBrand(), car.getModel(), car.getYear(), car.getPricePerDay(),
+                car.getStatus(), car.getCategory() != null ? car.getCategory().getName() : null,
+                car.getDescription(), car.getImageUrl());
+    }
+
+    public String getFullName() {
+        return brand + " " + model + " (" + year + ")";
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.rentapp.dto;
+
+import com.example.rentapp.entity.User;
+import lombok.Value;
+
+/**
+ * Неизменяемый снимок текущего пользователя без хеша пароля: хранится в кэше users и
+ * один и тот же экземпляр отдаётся параллельным запросам. Изменения идут через методы
+ * UserService, которые загружают свежую сущность.
+ */
+@Value
+public class CurrentUser {
+    Long id;
+    String username;
+    String email;
+    String firstName;
+    String lastName;
+    String phone;
+    String role;
+    String cardHolderName;
+    String cardLast4;
+    String cardExpiry;
+    String driverLicenseSeries;
+    String driverLicenseNumber;
+
+    public static CurrentUser from(User user) {
+        return new CurrentUser(user.getId(), user.getUsername(), user.getEmail(), user.getFirstName(),
+                user.getLastName(), user.getPhone(), user.getRole(), user.getCardHolderName(),
+                user.getCardLast4(), user.getCardExpiry(), user.getDriverLicenseSeries(),
+                user.getDriverLicenseNumber());
+    }
+
+    public String getFullName() {
+        String first = firstName != null ? firstName : "";
+        String last = lastName != null ? lastName : "";
+        return (first + " " + last).trim();
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.example.rentapp.dto;
+
+/**
+ * Проекция для запросов вида SELECT x AS groupKey, COUNT(*) AS count ... GROUP BY x
+ */
+public interface GroupCount {
+    String getGroupKey();
+
+    long getCount();
+}
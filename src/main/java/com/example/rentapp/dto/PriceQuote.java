@@ -0,0 +1,19 @@
+package com.example.rentapp.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Расчёт стоимости аренды автомобиля на даты: дни по классам, сумма до скидки, скидка и итог
+ */
+public record PriceQuote(Long carId,
+                         LocalDate startDate,
+                         LocalDate endDate,
+                         long days,
+                         long weekendDays,
+                         long seasonDays,
+                         BigDecimal dailyRate,
+                         BigDecimal subtotal,
+                         int discountPercent,
+                         BigDecimal total) {
+}
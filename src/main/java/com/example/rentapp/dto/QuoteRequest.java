@@ -0,0 +1,13 @@
+package com.example.rentapp.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Пакетный расчёт: один автомобиль, много периодов
+ */
+public record QuoteRequest(Long carId, List<DateRange> ranges) {
+
+    public record DateRange(LocalDate startDate, LocalDate endDate) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.rentapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Строка списка аренд: всё, что нужно шаблону rentals/list, одним запросом без загрузки сущностей
+ */
+@Getter
+@AllArgsConstructor
+public class RentalListItemDto {
+    private Long id;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String status;
+    private BigDecimal totalPrice;
+    private Boolean depositPaid;
+    private LocalDateTime createdAt;
+    private Long carId;
+    private String carBrand;
+    private String carModel;
+    private Integer carYear;
+    private String carImageUrl;
+    private BigDecimal carPricePerDay;
+    private Long userId;
+    private String userFirstName;
+    private String userLastName;
+    private String userEmail;
+
+    public boolean hasCar() {
+        return carId != null;
+    }
+
+    public boolean hasUser() {
+        return userId != null;
+    }
+
+    public String getCarName() {
+        return carBrand + " " + carModel;
+    }
+
+    public String getCarFullName() {
+        return carBrand + " " + carModel + " (" + carYear + ")";
+    }
+
+    public String getUserFullName() {
+        String first = userFirstName != null ? userFirstName : "";
+        String last = userLastName != null ? userLastName : "";
+        return (first + " " + last).trim();
+    }
+
+    public long getRentalDays() {
+        if (startDate != null && endDate != null) {
+            long days = ChronoUnit.DAYS.between(startDate, endDate);
+            return Math.max(days, 1);
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.rentapp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Порция списка аренд и курсор для запроса следующей порции (null, если это последняя)
+ */
+@Getter
+@AllArgsConstructor
+public class RentalListPage {
+    private List<RentalListItemDto> items;
+    private String nextCursor;
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -5,14 +5,20 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.math.BigDecimal;
+import java.util.List;
 
 @Entity
 @Table(name = "cars")
 @Data
 public class Car {
+    public static final List<String> STATUSES = List.of("AVAILABLE", "RENTED", "MAINTENANCE");
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cars_seq")
+    @SequenceGenerator(name = "cars_seq", sequenceName = "cars_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Brand is mandatory")
@@ -32,8 +38,10 @@ public class Car {
 
     private String status = "AVAILABLE";
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private CarCategory category;
 
     private String description;
@@ -41,6 +49,10 @@ public class Car {
     @Column(name = "image_url")
     private String imageUrl;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     public String getFullName() {
         return brand + " " + model + " (" + year + ")";
     }
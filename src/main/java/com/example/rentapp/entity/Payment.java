@@ -3,6 +3,8 @@ package com.example.rentapp.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -11,11 +13,14 @@ import java.time.LocalDateTime;
 @Data
 public class Payment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", sequenceName = "payments_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "rental_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Rental rental;
 
     private BigDecimal amount;
@@ -28,6 +33,14 @@ public class Payment {
 
     private String status;
 
+    // ключ из payment_outbox: второй платёж по тому же запросу не создаётся
+    @Column(name = "idempotency_key", unique = true)
+    private String idempotencyKey;
+
+    // идентификатор операции в платёжном шлюзе
+    @Column(name = "transaction_id")
+    private String transactionId;
+
     @PrePersist
     public void prePersist() {
         if (paymentDate == null) paymentDate = LocalDateTime.now();
@@ -0,0 +1,64 @@
+package com.example.rentapp.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Запрос платежа в очереди обработки (transactional outbox).
+ * Аренда хранится только id: обработчику сама сущность не нужна.
+ */
+@Entity
+@Table(name = "payment_outbox")
+@Data
+public class PaymentOutbox {
+
+    public static final String PENDING = "PENDING";
+    public static final String PROCESSING = "PROCESSING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+    // аренда больше не ждёт оплаты (отменена или уже обработана менеджером)
+    public static final String CANCELLED = "CANCELLED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_outbox_seq")
+    @SequenceGenerator(name = "payment_outbox_seq", sequenceName = "payment_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "rental_id", nullable = false)
+    private Long rentalId;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Column(name = "payment_method", nullable = false)
+    private String paymentMethod;
+
+    @Column(name = "idempotency_key", nullable = false, unique = true)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private String status = PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // номер отправки после отказа шлюза, входит в ключ запроса к шлюзу (PaymentService.gatewayKey)
+    @Column(nullable = false)
+    private int submission;
+
+    // для PENDING — когда повторить, для PROCESSING — до какого момента запись занята обработчиком
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
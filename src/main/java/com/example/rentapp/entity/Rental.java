@@ -3,6 +3,8 @@ package com.example.rentapp.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -15,16 +17,25 @@ import java.util.List;
 @Table(name = "rentals")
 @Data
 public class Rental {
+
+    // Статусы, при которых аренда занимает автомобиль на свои даты
+    public static final List<String> BOOKING_STATUSES = List.of("PENDING", "CONFIRMED", "ACTIVE");
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rentals_seq")
+    @SequenceGenerator(name = "rentals_seq", sequenceName = "rentals_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "car_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Car car;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
     @NotNull(message = "Start date is mandatory")
@@ -35,9 +46,13 @@ public class Rental {
     @Column(name = "end_date")
     private LocalDate endDate;
 
-    @Column(name = "total_price")
+    // цена на момент бронирования (PricingEngine); изменения цены автомобиля на неё не влияют
+    @Column(name = "total_price", updatable = false)
     private BigDecimal totalPrice;
 
+    @Column(name = "pricing_version", updatable = false)
+    private String pricingVersion;
+
     private String status = "PENDING";
 
     @Column(name = "deposit_paid")
@@ -46,25 +61,19 @@ public class Rental {
     @Column(name = "special_requests", columnDefinition = "TEXT")
     private String specialRequests;
 
-    @Column(name = "created_at")
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
 
     @OneToMany(mappedBy = "rental", cascade = CascadeType.REMOVE, orphanRemoval = true)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<Payment> payments = new ArrayList<>();
 
-    @PrePersist
-    @PreUpdate
-    public void calculateTotalPrice() {
-        if (startDate != null && endDate != null && car != null) {
-            long days = ChronoUnit.DAYS.between(startDate, endDate);
-            if (days <= 0) {
-                days = 1;
-            }
-            this.totalPrice = car.getPricePerDay().multiply(BigDecimal.valueOf(days));
-        }
-    }
-
     @Transient
     public long getRentalDays() {
         if (startDate != null && endDate != null) {
@@ -1,15 +1,39 @@
 package com.example.rentapp.repository;
 
 import com.example.rentapp.entity.Car;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CarRepository extends JpaRepository<Car, Long> {
-    List<Car> findByStatus(String status);
+public interface CarRepository extends JpaRepository<Car, Long>, JpaSpecificationExecutor<Car> {
+    @EntityGraph(attributePaths = "category")
+    Page<Car> findByStatus(String status, Pageable pageable);
+    long countByStatus(String status);
+
+    @EntityGraph(attributePaths = "category")
+    Optional<Car> findWithCategoryById(Long id);
+
+    @EntityGraph(attributePaths = "category")
+    List<Car> findTop3ByStatusOrderByIdAsc(String status);
     List<Car> findByBrandContainingIgnoreCase(String brand);
 
     @Query("SELECT c FROM Car c WHERE c.status = 'AVAILABLE' AND " +
@@ -19,4 +43,46 @@ public interface CarRepository extends JpaRepository<Car, Long> {
     List<Car> findAvailableCars(@Param("brand") String brand,
                                 @Param("minPrice") Double minPrice,
                                 @Param("maxPrice") Double maxPrice);
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = "category")
+    Page<Car> findAll(Specification<Car> spec, Pageable pageable);
+
+    String AVAILABLE_BETWEEN = "c.status <> 'MAINTENANCE' AND NOT EXISTS (" +
+            "SELECT r.id FROM Rental r WHERE r.car = c AND r.status IN :statuses " +
+            "AND r.startDate < :endDate AND r.endDate > :startDate)";
+
+    @Query(value = "SELECT c FROM Car c LEFT JOIN FETCH c.category WHERE " + AVAILABLE_BETWEEN,
+            countQuery = "SELECT COUNT(c) FROM Car c WHERE " + AVAILABLE_BETWEEN)
+    Page<Car> findAvailableBetween(@Param("startDate") LocalDate startDate,
+                                   @Param("endDate") LocalDate endDate,
+                                   @Param("statuses") Collection<String> statuses,
+                                   Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Car c WHERE c.id = :id")
+    Optional<Car> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Массовая смена статуса одним UPDATE. categoryId и fromStatus необязательны (null — без фильтра).
+     * Версия увеличивается, чтобы открытые формы редактирования получили конфликт оптимистичной блокировки.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Car c SET c.status = :status, c.version = c.version + 1 " +
+            "WHERE (c.status IS NULL OR c.status <> :status) " +
+            "AND (:fromStatus IS NULL OR c.status = :fromStatus) " +
+            "AND (:categoryId IS NULL OR c.category.id = :categoryId)")
+    int bulkUpdateStatus(@Param("status") String status,
+                         @Param("fromStatus") String fromStatus,
+                         @Param("categoryId") Long categoryId);
+
+    /** Статус одной машины без загрузки сущности; версия увеличивается, как и при массовой смене */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Car c SET c.status = :status, c.version = c.version + 1 " +
+            "WHERE c.id = :id AND (c.status IS NULL OR c.status <> :status)")
+    int updateStatus(@Param("id") Long id, @Param("status") String status);
+
+    /** Машины без страховки (anti-join), читаются курсором порциями; вызывать внутри транзакции */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT c FROM Car c WHERE NOT EXISTS (SELECT i.id FROM Insurance i WHERE i.car = c) ORDER BY c.id")
+    Stream<Car> streamWithoutInsurance();
+}
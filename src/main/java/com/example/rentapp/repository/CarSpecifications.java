@@ -0,0 +1,51 @@
+package com.example.rentapp.repository;
+
+import com.example.rentapp.entity.Car;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+
+public final class CarSpecifications {
+
+    private CarSpecifications() {
+    }
+
+    public static Specification<Car> brandContains(String brand) {
+        if (brand == null || brand.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + brand.trim().toLowerCase() + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("brand")), pattern);
+    }
+
+    public static Specification<Car> modelContains(String model) {
+        if (model == null || model.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + model.trim().toLowerCase() + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("model")), pattern);
+    }
+
+    public static Specification<Car> priceAtLeast(Double minPrice) {
+        if (minPrice == null) {
+            return null;
+        }
+        BigDecimal min = BigDecimal.valueOf(minPrice);
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("pricePerDay"), min);
+    }
+
+    public static Specification<Car> priceAtMost(Double maxPrice) {
+        if (maxPrice == null) {
+            return null;
+        }
+        BigDecimal max = BigDecimal.valueOf(maxPrice);
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("pricePerDay"), max);
+    }
+
+    public static Specification<Car> search(String brand, String model, Double minPrice, Double maxPrice) {
+        return Specification.where(brandContains(brand))
+                .and(modelContains(model))
+                .and(priceAtLeast(minPrice))
+                .and(priceAtMost(maxPrice));
+    }
+}
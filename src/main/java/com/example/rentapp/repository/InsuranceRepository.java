@@ -1,13 +1,23 @@
 package com.example.rentapp.repository;
 
 import com.example.rentapp.entity.Insurance;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface InsuranceRepository extends JpaRepository<Insurance, Long> {
 
+    @Override
+    @EntityGraph(attributePaths = "car")
+    List<Insurance> findAll();
+
+    @EntityGraph(attributePaths = "car")
     List<Insurance> findByCarId(Long carId);
 
+    @EntityGraph(attributePaths = "car")
+    Optional<Insurance> findWithCarById(Long id);
+
     boolean existsByCarId(Long carId);
 }
@@ -0,0 +1,74 @@
+package com.example.rentapp.repository;
+
+import com.example.rentapp.entity.PaymentOutbox;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentOutboxRepository extends JpaRepository<PaymentOutbox, Long> {
+
+    Optional<PaymentOutbox> findByIdempotencyKey(String idempotencyKey);
+
+    List<PaymentOutbox> findByRentalId(Long rentalId);
+
+    @Query("SELECT o.rentalId FROM PaymentOutbox o WHERE o.id = :id")
+    Optional<Long> findRentalIdById(@Param("id") Long id);
+
+    // сохранение результата и отмена аренды не проходят друг мимо друга
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM PaymentOutbox o WHERE o.id = :id")
+    Optional<PaymentOutbox> findByIdForUpdate(@Param("id") Long id);
+
+    // PROCESSING с истёкшей арендой — запись узла, упавшего посреди обработки
+    @Query("SELECT o.id FROM PaymentOutbox o " +
+            "WHERE o.status IN ('PENDING', 'PROCESSING') AND o.nextAttemptAt <= :now " +
+            "ORDER BY o.nextAttemptAt")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Захват записи обработчиком до leaseUntil. Условный UPDATE: из нескольких потоков и узлов
+     * запись получает только один (вернётся 1), остальным вернётся 0.
+     * Не захватывается запись с исчерпанными попытками — в том числе PROCESSING с истёкшей арендой —
+     * и запись аренды, которая уже не в статусе PENDING.
+     */
+    @Modifying
+    @Query("UPDATE PaymentOutbox o SET o.status = 'PROCESSING', o.attempts = o.attempts + 1, " +
+            "o.nextAttemptAt = :leaseUntil " +
+            "WHERE o.id = :id AND o.status IN ('PENDING', 'PROCESSING') AND o.nextAttemptAt <= :now " +
+            "AND o.attempts < :maxAttempts " +
+            "AND EXISTS (SELECT r.id FROM Rental r WHERE r.id = o.rentalId AND r.status = 'PENDING')")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil,
+              @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Закрывает запись, которую claim не взял по лимиту попыток (FAILED) или по статусу аренды
+     * (CANCELLED), чтобы опрос перестал её выбирать. Занятые и отложенные записи не трогает.
+     */
+    @Modifying
+    @Query("UPDATE PaymentOutbox o SET " +
+            "o.status = CASE WHEN o.attempts >= :maxAttempts THEN 'FAILED' ELSE 'CANCELLED' END, " +
+            "o.lastError = CASE WHEN o.attempts >= :maxAttempts THEN 'Попытки исчерпаны' " +
+            "ELSE 'Аренда не ожидает оплаты' END, " +
+            "o.processedAt = :now " +
+            "WHERE o.id = :id AND o.status IN ('PENDING', 'PROCESSING') AND o.nextAttemptAt <= :now " +
+            "AND (o.attempts >= :maxAttempts " +
+            "OR NOT EXISTS (SELECT r.id FROM Rental r WHERE r.id = o.rentalId AND r.status = 'PENDING'))")
+    int closeUnclaimable(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts);
+
+    /** Отменяет незавершённые запросы аренды; вызывается в транзакции смены её статуса */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE PaymentOutbox o SET o.status = 'CANCELLED', o.lastError = 'Аренда не ожидает оплаты', " +
+            "o.processedAt = :now " +
+            "WHERE o.rentalId = :rentalId AND o.status IN ('PENDING', 'PROCESSING')")
+    int cancelOutstanding(@Param("rentalId") Long rentalId, @Param("now") LocalDateTime now);
+}
@@ -4,6 +4,12 @@ import com.example.rentapp.entity.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
+
+    boolean existsByIdempotencyKey(String idempotencyKey);
+
+    List<Payment> findByRentalId(Long rentalId);
 }
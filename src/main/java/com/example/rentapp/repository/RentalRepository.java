@@ -1,15 +1,114 @@
 package com.example.rentapp.repository;
 
 
+import com.example.rentapp.dto.GroupCount;
+import com.example.rentapp.dto.RentalListItemDto;
 import com.example.rentapp.entity.Rental;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RentalRepository extends JpaRepository<Rental, Long> {
+
+    String LIST_ITEM_SELECT = "SELECT new com.example.rentapp.dto.RentalListItemDto(" +
+            "r.id, r.startDate, r.endDate, r.status, r.totalPrice, r.depositPaid, r.createdAt, " +
+            "c.id, c.brand, c.model, c.year, c.imageUrl, c.pricePerDay, " +
+            "u.id, u.firstName, u.lastName, u.email) " +
+            "FROM Rental r LEFT JOIN r.car c LEFT JOIN r.user u ";
+
+    String MANAGER_VISIBLE = "(r.status <> 'PENDING' OR r.depositPaid = true) " +
+            "AND (:status IS NULL OR UPPER(r.status) = UPPER(:status)) " +
+            "AND (:userId IS NULL OR u.id = :userId) ";
+
+    @EntityGraph(attributePaths = {"car", "user"})
     List<Rental> findByUserId(Long userId);
+
+    @EntityGraph(attributePaths = "car")
+    Optional<Rental> findWithCarById(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Rental r WHERE r.id = :id")
+    Optional<Rental> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT c.id FROM Rental r JOIN r.car c WHERE r.id = :id")
+    Optional<Long> findCarIdById(@Param("id") Long id);
+
+    /** Смена статуса одним UPDATE, без загрузки аренды и автомобиля; 0 — аренды нет */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Rental r SET r.status = :status, r.version = r.version + 1 WHERE r.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") String status);
+
+    /** Отметка об оплате депозита одним UPDATE; 0 — аренды нет или депозит уже отмечен */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Rental r SET r.depositPaid = true, r.version = r.version + 1 " +
+            "WHERE r.id = :id AND (r.depositPaid IS NULL OR r.depositPaid = false)")
+    int markDepositPaid(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = {"car", "user"})
     List<Rental> findByCarId(Long carId);
+
+    @EntityGraph(attributePaths = {"car", "user"})
     List<Rental> findByStatusIgnoreCase(String status);
+
+    @EntityGraph(attributePaths = {"car", "user"})
     List<Rental> findByUserIdAndStatusIgnoreCase(Long userId, String status);
+
+    // Keyset-пагинация списка менеджера: первая страница и страницы после курсора (createdAt, id)
+    @Query(LIST_ITEM_SELECT + "WHERE " + MANAGER_VISIBLE +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<RentalListItemDto> findManagerPage(@Param("status") String status,
+                                            @Param("userId") Long userId,
+                                            Pageable pageable);
+
+    @Query(LIST_ITEM_SELECT + "WHERE " + MANAGER_VISIBLE +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<RentalListItemDto> findManagerPageAfter(@Param("status") String status,
+                                                 @Param("userId") Long userId,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id,
+                                                 Pageable pageable);
+
+    @Query(LIST_ITEM_SELECT + "WHERE u.id = :userId ORDER BY r.createdAt DESC, r.id DESC")
+    List<RentalListItemDto> findListItemsByUserId(@Param("userId") Long userId);
+
+    @Query(LIST_ITEM_SELECT + "WHERE u.id = :userId AND UPPER(r.status) = UPPER(:status) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<RentalListItemDto> findListItemsByUserIdAndStatus(@Param("userId") Long userId,
+                                                           @Param("status") String status);
+
+    long countByStatusIgnoreCase(String status);
+
+    long countByUserId(Long userId);
+
+    long countByUserIdAndStatusIgnoreCase(Long userId, String status);
+
+    // Неоплаченные заявки в ожидании не учитываются, как и в списке аренд менеджера
+    @Query("SELECT r.status AS groupKey, COUNT(r) AS count FROM Rental r " +
+            "WHERE r.status <> 'PENDING' OR r.depositPaid = true GROUP BY r.status")
+    List<GroupCount> countVisibleGroupedByStatus();
+
+    @Query("SELECT AVG((r.endDate - r.startDate) BY DAY) FROM Rental r")
+    Double averageDurationDays();
+
+    // Периоды полуоткрытые: [startDate, endDate), день возврата свободен для следующей аренды
+    @Query("SELECT COUNT(r) > 0 FROM Rental r WHERE r.car.id = :carId AND r.status IN :statuses " +
+            "AND r.startDate < :endDate AND r.endDate > :startDate")
+    boolean existsOverlapping(@Param("carId") Long carId,
+                              @Param("startDate") LocalDate startDate,
+                              @Param("endDate") LocalDate endDate,
+                              @Param("statuses") Collection<String> statuses);
 }
\ No newline at end of file
@@ -1,8 +1,12 @@
 package com.example.rentapp.repository;
 
+import com.example.rentapp.dto.GroupCount;
 import com.example.rentapp.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +15,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+    List<User> findByRole(String role);
+
+    @Query("SELECT u.username FROM User u WHERE u.id = :id")
+    Optional<String> findUsernameById(@Param("id") Long id);
+
+    @Query("SELECT u.role AS groupKey, COUNT(u) AS count FROM User u GROUP BY u.role")
+    List<GroupCount> countGroupedByRole();
 }
\ No newline at end of file
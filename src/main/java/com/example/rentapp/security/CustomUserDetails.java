@@ -9,31 +9,45 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 
+/**
+ * Неизменяемый снимок учётной записи для сессии и кэша аутентификации.
+ * Сущность User (с её коллекцией аренд) в сессии не хранится — её по id отдаёт UserService.getCurrentUser.
+ * В сессию попадает копия без хеша пароля (см. {@link #withoutPassword()}).
+ */
 public class CustomUserDetails implements UserDetails {
 
-    private final User user;
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final String role;
+
+    public CustomUserDetails(Long id, String username, String password, String role) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.role = role != null ? role.toUpperCase() : "CLIENT";
+    }
 
     public CustomUserDetails(User user) {
-        this.user = user;
+        this(user.getId(), user.getUsername(), user.getPassword(), user.getRole());
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        String role = user.getRole() != null ? user.getRole().toUpperCase() : "CLIENT";
-        if (!role.startsWith("ROLE_")) {
-            role = "ROLE_" + role;
-        }
-        return List.of(new SimpleGrantedAuthority(role));
+        String authority = role.startsWith("ROLE_") ? role : "ROLE_" + role;
+        return List.of(new SimpleGrantedAuthority(authority));
     }
 
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return user.getUsername();
+        return username;
     }
 
     @Override
@@ -56,20 +70,28 @@ public class CustomUserDetails implements UserDetails {
         return true;
     }
 
-    public User getUser() {
-        return user;
+    /** Копия без хеша пароля — в таком виде принципал хранится в сессии */
+    public CustomUserDetails withoutPassword() {
+        return password == null ? this : new CustomUserDetails(id, username, null, role);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getRole() {
+        return role;
     }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof CustomUserDetails that)) return false;
-        return Objects.equals(user.getId(), that.user.getId());
+        return Objects.equals(id, that.id);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(user.getId());
+        return Objects.hashCode(id);
     }
 }
-
@@ -0,0 +1,101 @@
+package com.example.rentapp.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Метрика http.session.size: размер сериализованных атрибутов сессии в байтах — столько
+ * занимает сессия в JDBC-хранилище (профиль jdbc-session) или при репликации.
+ * Сериализация не бесплатна, поэтому замеряется каждый sample-rate-й запрос с сессией.
+ */
+@Slf4j
+@Component
+public class SessionSizeMetricsFilter extends OncePerRequestFilter {
+
+    private final DistributionSummary sessionSize;
+    private final Counter notSerializable;
+    private final int sampleRate;
+    private final AtomicLong requests = new AtomicLong();
+
+    public SessionSizeMetricsFilter(MeterRegistry meterRegistry,
+                                    @Value("${app.session.metrics.sample-rate:20}") int sampleRate) {
+        this.sessionSize = DistributionSummary.builder("http.session.size")
+                .description("Размер сериализованных атрибутов HTTP-сессии")
+                .baseUnit("bytes")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.notSerializable = Counter.builder("http.session.attributes.not.serializable")
+                .description("Атрибуты сессии, которые не удалось сериализовать")
+                .register(meterRegistry);
+        this.sampleRate = Math.max(sampleRate, 1);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            HttpSession session = request.getSession(false);
+            if (session != null && requests.incrementAndGet() % sampleRate == 0) {
+                record(session);
+            }
+        }
+    }
+
+    private void record(HttpSession session) {
+        long total = 0;
+        try {
+            for (String name : Collections.list(session.getAttributeNames())) {
+                total += serializedSize(name, session.getAttribute(name));
+            }
+        } catch (IllegalStateException e) {
+            // сессия завершена во время запроса (выход из системы)
+            return;
+        }
+        sessionSize.record(total);
+    }
+
+    private long serializedSize(String name, Object value) {
+        CountingOutputStream counter = new CountingOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+            out.writeObject(value);
+        } catch (IOException e) {
+            notSerializable.increment();
+            log.debug("Атрибут сессии {} не сериализуется: {}", name, e.toString());
+            return 0;
+        }
+        return counter.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.rentapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Полосатые блокировки по id автомобиля: бронирования одной машины в пределах узла
+ * выполняются по очереди, разные машины не мешают друг другу.
+ * Между узлами порядок обеспечивает SELECT ... FOR UPDATE в RentalService.
+ */
+@Component
+public class CarBookingLocks {
+
+    private final ReentrantLock[] stripes;
+    private final long waitMillis;
+
+    public CarBookingLocks(@Value("${app.booking.lock-stripes:64}") int stripeCount,
+                           @Value("${app.booking.lock-wait-ms:5000}") long waitMillis) {
+        this.stripes = new ReentrantLock[Math.max(stripeCount, 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.waitMillis = waitMillis;
+    }
+
+    public <T> T withCarLock(Long carId, Supplier<T> action) {
+        ReentrantLock lock = stripeFor(carId);
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Бронирование прервано");
+        }
+        if (!acquired) {
+            throw new RuntimeException("Автомобиль сейчас бронируется другим клиентом, попробуйте ещё раз");
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock stripeFor(Long carId) {
+        int hash = carId == null ? 0 : Long.hashCode(carId);
+        hash ^= (hash >>> 16);
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+}
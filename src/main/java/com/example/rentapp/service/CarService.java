@@ -1,11 +1,24 @@
 package com.example.rentapp.service;
 
+import com.example.rentapp.dto.CarView;
 import com.example.rentapp.entity.Car;
 import com.example.rentapp.entity.CarCategory;
+import com.example.rentapp.entity.Rental;
 import com.example.rentapp.repository.CarCategoryRepository;
 import com.example.rentapp.repository.CarRepository;
+import com.example.rentapp.repository.CarSpecifications;
+import com.example.rentapp.config.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
@@ -14,13 +27,19 @@ import java.util.stream.Collectors;
 @Service
 public class CarService {
 
+    public static final int DEFAULT_PAGE_SIZE = 12;
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final CarRepository carRepository;
     private final CarCategoryRepository carCategoryRepository;
+    private final DashboardSnapshotCache dashboardSnapshotCache;
 
     public CarService(CarRepository carRepository,
-                      CarCategoryRepository carCategoryRepository) {
+                      CarCategoryRepository carCategoryRepository,
+                      DashboardSnapshotCache dashboardSnapshotCache) {
         this.carRepository = carRepository;
         this.carCategoryRepository = carCategoryRepository;
+        this.dashboardSnapshotCache = dashboardSnapshotCache;
     }
 
     public List<Car> findAll() {
@@ -56,25 +75,79 @@ public class CarService {
         };
     }
 
-    public List<Car> findAvailableCars() {
-        return carRepository.findByStatus("AVAILABLE");
+    /** Страница свободных машин; в кэше неизменяемые представления, не сущности */
+    @Cacheable(cacheNames = CacheConfig.CAR_CATALOG, key = "'available:' + #page + ':' + #size")
+    public Page<CarView> findAvailableCars(int page, int size) {
+        return carRepository.findByStatus("AVAILABLE", pageRequest(page, size, Sort.by("id")))
+                .map(CarView::from);
     }
 
-    public List<Car> searchCars(String brand, String model, Double minPrice, Double maxPrice) {
-        List<Car> allCars = carRepository.findAll();
+    public Page<CarView> findAvailableBetween(LocalDate startDate, LocalDate endDate, int page, int size) {
+        return carRepository.findAvailableBetween(startDate, endDate, Rental.BOOKING_STATUSES,
+                        pageRequest(page, size, Sort.by("brand", "model", "id")))
+                .map(CarView::from);
+    }
 
-        return allCars.stream()
-                .filter(car -> brand == null || car.getBrand().toLowerCase().contains(brand.toLowerCase()))
-                .filter(car -> model == null || car.getModel().toLowerCase().contains(model.toLowerCase()))
-                .filter(car -> minPrice == null || car.getPricePerDay().doubleValue() >= minPrice)
-                .filter(car -> maxPrice == null || car.getPricePerDay().doubleValue() <= maxPrice)
-                .collect(Collectors.toList());
+    public Page<Car> searchCars(String brand, String model, Double minPrice, Double maxPrice,
+                                String sortBy, String direction, int page, int size) {
+        return carRepository.findAll(CarSpecifications.search(brand, model, minPrice, maxPrice),
+                pageRequest(page, size, buildSort(sortBy, direction)));
+    }
+
+    private static Pageable pageRequest(int page, int size, Sort sort) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), sort);
+    }
+
+    private Sort buildSort(String sortBy, String direction) {
+        if (sortBy == null || sortBy.isBlank()) {
+            return Sort.by("id");
+        }
+
+        Sort.Order order = switch (sortBy.toLowerCase()) {
+            case "brand" -> Sort.Order.by("brand").ignoreCase();
+            case "price" -> Sort.Order.by("pricePerDay");
+            case "year" -> Sort.Order.by("year");
+            case "model" -> Sort.Order.by("model").ignoreCase();
+            default -> null;
+        };
+        if (order == null) {
+            return Sort.by("id");
+        }
+        if ("desc".equalsIgnoreCase(direction)) {
+            order = order.with(Sort.Direction.DESC);
+        }
+        // id как второй ключ, чтобы страницы не пересекались при равных значениях
+        return Sort.by(order, Sort.Order.asc("id"));
+    }
+
+    /** Несколько доступных машин для витрины главной страницы */
+    @Cacheable(cacheNames = CacheConfig.CAR_CATALOG, key = "'featured'")
+    public List<CarView> findFeaturedCars() {
+        return carRepository.findTop3ByStatusOrderByIdAsc("AVAILABLE").stream()
+                .map(CarView::from)
+                .toList();
     }
 
+    /** Представление для чтения; экземпляр из кэша общий для всех запросов */
+    @Cacheable(cacheNames = CacheConfig.CARS, key = "#id", unless = "#result == null")
+    public Optional<CarView> findViewById(Long id) {
+        return carRepository.findWithCategoryById(id).map(CarView::from);
+    }
+
+    /** Свежая сущность для форм редактирования и связей, без кэша */
     public Optional<Car> findById(Long id) {
-        return carRepository.findById(id);
+        return carRepository.findWithCategoryById(id);
+    }
+
+    public Optional<Car> findByIdForUpdate(Long id) {
+        return carRepository.findByIdForUpdate(id);
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CARS, key = "#car.id", condition = "#car.id != null"),
+            @CacheEvict(cacheNames = CacheConfig.TARIFFS, key = "#car.id", condition = "#car.id != null"),
+            @CacheEvict(cacheNames = CacheConfig.CAR_CATALOG, allEntries = true)
+    })
     public Car save(Car car) {
         attachCategory(car);
         return carRepository.save(car);
@@ -89,40 +162,84 @@ public class CarService {
         }
     }
 
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CARS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.TARIFFS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.CAR_CATALOG, allEntries = true)
+    })
     public void deleteById(Long id) {
         carRepository.deleteById(id);
     }
 
+    /** Меняет статус одним UPDATE; сбрасывает кэши после коммита, счётчики панели — если статус изменился */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CARS, key = "#carId"),
+            @CacheEvict(cacheNames = CacheConfig.CAR_CATALOG, allEntries = true)
+    })
     public void updateCarStatus(Long carId, String status) {
-        carRepository.findById(carId).ifPresent(car -> {
-            car.setStatus(status);
-            carRepository.save(car);
-        });
+        if (carRepository.updateStatus(carId, status) > 0) {
+            dashboardSnapshotCache.invalidate();
+        }
     }
 
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CARS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CAR_CATALOG, allEntries = true)
+    })
     public int makeAllAvailable() {
-        List<Car> cars = carRepository.findAll();
-        int updated = 0;
-        for (Car car : cars) {
-            if (!"AVAILABLE".equalsIgnoreCase(car.getStatus())) {
-                car.setStatus("AVAILABLE");
-                carRepository.save(car);
-                updated++;
+        return bulkUpdateStatus(null, null, "AVAILABLE");
+    }
+
+    /**
+     * Переводит в статус status все машины категории categoryId, находящиеся в статусе fromStatus,
+     * одним UPDATE. Фильтры необязательны; возвращает число изменённых машин.
+     */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CARS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CAR_CATALOG, allEntries = true)
+    })
+    public int bulkUpdateStatus(Long categoryId, String fromStatus, String status) {
+        String target = normalizeStatus(status);
+        if (target == null) {
+            throw new IllegalArgumentException("Неизвестный статус автомобиля: " + status);
+        }
+        String source = null;
+        if (fromStatus != null && !fromStatus.isBlank()) {
+            source = normalizeStatus(fromStatus);
+            if (source == null) {
+                throw new IllegalArgumentException("Неизвестный статус автомобиля: " + fromStatus);
             }
         }
+        int updated = carRepository.bulkUpdateStatus(target, source, categoryId);
+        if (updated > 0) {
+            dashboardSnapshotCache.invalidate();
+        }
         return updated;
     }
 
+    private static String normalizeStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        String normalized = status.trim().toUpperCase();
+        return Car.STATUSES.contains(normalized) ? normalized : null;
+    }
+
+    @Cacheable(cacheNames = CacheConfig.CAR_CATALOG, key = "'total'")
     public long getTotalCars() {
         return carRepository.count();
     }
 
+    @Cacheable(cacheNames = CacheConfig.CAR_CATALOG, key = "'availableCount'")
     public long getAvailableCarsCount() {
-        return carRepository.findByStatus("AVAILABLE").size();
+        return carRepository.countByStatus("AVAILABLE");
     }
 
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "'all'")
     public List<CarCategory> getAllCategories() {
-        List<CarCategory> categories = carCategoryRepository.findAllOrderedByName();
-        return categories.isEmpty() ? carCategoryRepository.findAll() : categories;
+        return carCategoryRepository.findAllOrderedByName();
     }
 }
@@ -0,0 +1,78 @@
+package com.example.rentapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Общие (не зависящие от пользователя) показатели панели, пересчитываемые не чаще одного раза за TTL.
+ * Сбрасывается при изменении аренд, чтобы счётчики статусов не отставали от действий менеджера.
+ */
+@Component
+public class DashboardSnapshotCache {
+
+    private final long ttlMillis;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    // не synchronized: загрузка идёт в БД, а монитор закрепил бы виртуальный поток за потоком-носителем
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+
+    public DashboardSnapshotCache(@Value("${app.dashboard.snapshot-ttl-ms:30000}") long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public Map<String, Object> get(Supplier<Map<String, Object>> loader) {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired(ttlMillis)) {
+            return current.values();
+        }
+        loadLock.lock();
+        try {
+            current = snapshot;
+            if (current == null || current.isExpired(ttlMillis)) {
+                long loadedGeneration = generation.get();
+                current = new Snapshot(Map.copyOf(loader.get()), System.currentTimeMillis());
+                // если аренды поменялись во время загрузки, снимок уже устарел и не сохраняется
+                if (generation.get() == loadedGeneration) {
+                    snapshot = current;
+                }
+            }
+            return current.values();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reset();
+                }
+            });
+        } else {
+            reset();
+        }
+    }
+
+    private void reset() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private record Snapshot(Map<String, Object> values, long loadedAt) {
+        boolean isExpired(long ttlMillis) {
+            return System.currentTimeMillis() - loadedAt >= ttlMillis;
+        }
+    }
+}
@@ -4,19 +4,31 @@ import com.example.rentapp.entity.Car;
 import com.example.rentapp.entity.Insurance;
 import com.example.rentapp.repository.CarRepository;
 import com.example.rentapp.repository.InsuranceRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 public class InsuranceService {
 
+    // кратно hibernate.jdbc.batch_size: после каждой порции контекст очищается, память не растёт
+    private static final int FLUSH_EVERY = 500;
+    private static final int LOG_EVERY = 10_000;
+
     private final InsuranceRepository insuranceRepository;
     private final CarRepository carRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public InsuranceService(InsuranceRepository insuranceRepository,
                             CarRepository carRepository) {
         this.insuranceRepository = insuranceRepository;
@@ -32,7 +44,7 @@ public class InsuranceService {
     }
 
     public Insurance findByIdOrThrow(Long id) {
-        return insuranceRepository.findById(id)
+        return insuranceRepository.findWithCarById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Страховка не найдена"));
     }
 
@@ -55,7 +67,10 @@ public class InsuranceService {
     public Insurance buildTemplateForCar(Long carId) {
         Car car = carRepository.findById(carId)
                 .orElseThrow(() -> new IllegalArgumentException("Автомобиль не найден"));
+        return buildTemplateForCar(car);
+    }
 
+    public Insurance buildTemplateForCar(Car car) {
         Insurance insurance = new Insurance();
         insurance.setCar(car);
         insurance.setInsuranceCompany("ООО \"Страхование Плюс\"");
@@ -67,20 +82,32 @@ public class InsuranceService {
         return insurance;
     }
 
-
+    /**
+     * Создаёт типовые страховки для всех машин без полиса в одной транзакции.
+     * Машины читаются потоком, вставки уходят пакетами JDBC.
+     */
+    @Transactional
     public int createDefaultsForCarsWithoutInsurance() {
-        List<Car> cars = carRepository.findAll();
-        AtomicInteger created = new AtomicInteger();
-
-        cars.forEach(car -> {
-            if (!insuranceRepository.existsByCarId(car.getId())) {
-                Insurance insurance = buildTemplateForCar(car.getId());
-                insuranceRepository.save(insurance);
-                created.incrementAndGet();
+        int created = 0;
+        try (Stream<Car> cars = carRepository.streamWithoutInsurance()) {
+            for (Car car : (Iterable<Car>) cars::iterator) {
+                entityManager.persist(buildTemplateForCar(car));
+                created++;
+                if (created % FLUSH_EVERY == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+                if (created % LOG_EVERY == 0) {
+                    log.info("Создано страховок: {}", created);
+                }
             }
-        });
-
-        return created.get();
+        }
+        entityManager.flush();
+        entityManager.clear();
+        if (created >= LOG_EVERY) {
+            log.info("Создание страховок завершено: {}", created);
+        }
+        return created;
     }
 
     public Insurance save(Insurance insurance) {
@@ -91,9 +118,3 @@ public class InsuranceService {
         insuranceRepository.deleteById(id);
     }
 }
-
-
-
-
-
-
@@ -0,0 +1,29 @@
+package com.example.rentapp.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Платёжный шлюз. Вызывается обработчиком очереди платежей вне транзакции БД.
+ * Реализация должна быть идемпотентной по idempotencyKey: повторный запрос с тем же ключом
+ * возвращает результат первого списания, а не списывает снова.
+ * Временная ошибка (таймаут, недоступность) — исключение, запрос будет повторён;
+ * отказ банка — {@link Result#declined(String)}, без повторов.
+ */
+public interface PaymentGateway {
+
+    Result charge(Charge charge);
+
+    record Charge(String idempotencyKey, Long rentalId, BigDecimal amount, String paymentMethod) {
+    }
+
+    record Result(boolean approved, String transactionId, String message) {
+
+        public static Result approved(String transactionId) {
+            return new Result(true, transactionId, null);
+        }
+
+        public static Result declined(String message) {
+            return new Result(false, null, message);
+        }
+    }
+}
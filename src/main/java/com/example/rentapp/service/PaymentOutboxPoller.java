@@ -0,0 +1,28 @@
+package com.example.rentapp.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Опрос payment_outbox раз в app.payments.poll-interval-ms: отложенные повторы, истёкшие аренды
+ * записей и записи, потерянные при переполнении пула или перезапуске.
+ * app.payments.polling-enabled=false выключает опрос, новые запросы по-прежнему обрабатываются
+ * по событию после коммита.
+ */
+@Component
+@ConditionalOnProperty(name = "app.payments.polling-enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentOutboxPoller {
+
+    private final PaymentOutboxWorker worker;
+
+    public PaymentOutboxPoller(PaymentOutboxWorker worker) {
+        this.worker = worker;
+    }
+
+    @Scheduled(initialDelayString = "${app.payments.poll-interval-ms:1000}",
+            fixedDelayString = "${app.payments.poll-interval-ms:1000}")
+    public void poll() {
+        worker.dispatchDue();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.rentapp.service;
+
+import com.example.rentapp.entity.PaymentOutbox;
+import com.example.rentapp.repository.PaymentOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Обработчик очереди payment_outbox на собственном ограниченном пуле (app.payments.workers,
+ * очередь app.payments.queue-capacity): запрос пользователя не ждёт шлюз и не занимает
+ * соединение с БД на время списания.
+ * Новые запросы приходят событием после коммита, отложенные повторы и записи, потерянные
+ * при переполнении пула или перезапуске, подбирает {@link PaymentOutboxPoller}.
+ */
+@Slf4j
+@Component
+public class PaymentOutboxWorker implements DisposableBean {
+
+    private final PaymentOutboxRepository outboxRepository;
+    private final PaymentService paymentService;
+    private final PaymentGateway paymentGateway;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolTaskExecutor executor;
+    private final long leaseMillis;
+    private final int maxAttempts;
+    private final int batchSize;
+    // записи, уже отданные пулу: опрос не ставит их в очередь второй раз
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    public PaymentOutboxWorker(PaymentOutboxRepository outboxRepository,
+                               PaymentService paymentService,
+                               PaymentGateway paymentGateway,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.payments.workers:4}") int workers,
+                               @Value("${app.payments.queue-capacity:100}") int queueCapacity,
+                               @Value("${app.payments.lease-ms:60000}") long leaseMillis,
+                               @Value("${app.payments.max-attempts:5}") int maxAttempts) {
+        this.outboxRepository = outboxRepository;
+        this.paymentService = paymentService;
+        this.paymentGateway = paymentGateway;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.leaseMillis = leaseMillis;
+        this.maxAttempts = maxAttempts;
+        this.batchSize = Math.max(queueCapacity, 1);
+
+        // не бин: иначе Spring Boot не создал бы свой applicationTaskExecutor
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(workers, 1));
+        executor.setMaxPoolSize(Math.max(workers, 1));
+        executor.setQueueCapacity(batchSize);
+        executor.setThreadNamePrefix("payment-");
+        executor.initialize();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onDepositRequested(PaymentService.DepositRequested event) {
+        submit(event.outboxId());
+    }
+
+    /** Ставит в очередь пула записи, которым пора в обработку */
+    public void dispatchDue() {
+        List<Long> due = outboxRepository.findDueIds(LocalDateTime.now(), PageRequest.of(0, batchSize));
+        due.forEach(this::submit);
+    }
+
+    private void submit(Long outboxId) {
+        if (!inFlight.add(outboxId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    process(outboxId);
+                } finally {
+                    inFlight.remove(outboxId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // пул занят: запись останется PENDING, её подберёт опрос
+            inFlight.remove(outboxId);
+            log.debug("Очередь обработки платежей заполнена, запись {} отложена", outboxId);
+        }
+    }
+
+    void process(Long outboxId) {
+        PaymentGateway.Charge charge = claim(outboxId);
+        if (charge == null) {
+            return;
+        }
+        PaymentGateway.Result result;
+        try {
+            result = paymentGateway.charge(charge);
+        } catch (RuntimeException e) {
+            log.warn("Ошибка шлюза для {}: {}", charge.idempotencyKey(), e.toString());
+            paymentService.retryOrFail(outboxId, e.getMessage(), true);
+            return;
+        }
+        try {
+            if (result.approved()) {
+                paymentService.completeDeposit(outboxId, result.transactionId());
+            } else {
+                paymentService.retryOrFail(outboxId, result.message(), false);
+            }
+        } catch (RuntimeException e) {
+            // запись остаётся PROCESSING и после lease-ms будет обработана снова;
+            // шлюз по тому же ключу повторно не спишет
+            log.error("Не удалось сохранить результат платежа {}", charge.idempotencyKey(), e);
+        }
+    }
+
+    /**
+     * Захватывает запись на lease-ms; null — запись уже обработана, занята другим обработчиком,
+     * исчерпала попытки или её аренда больше не ждёт оплаты (две последние закрываются)
+     */
+    private PaymentGateway.Charge claim(Long outboxId) {
+        LocalDateTime now = LocalDateTime.now();
+        return transactionTemplate.execute(status -> {
+            if (outboxRepository.claim(outboxId, now, now.plusNanos(leaseMillis * 1_000_000), maxAttempts) == 0) {
+                if (outboxRepository.closeUnclaimable(outboxId, now, maxAttempts) > 0) {
+                    log.warn("Запрос платежа {} закрыт без обращения к шлюзу", outboxId);
+                }
+                return null;
+            }
+            return outboxRepository.findById(outboxId)
+                    .filter(entry -> PaymentOutbox.PROCESSING.equals(entry.getStatus()))
+                    .map(entry -> new PaymentGateway.Charge(PaymentService.gatewayKey(entry), entry.getRentalId(),
+                            entry.getAmount(), entry.getPaymentMethod()))
+                    .orElse(null);
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -1,39 +1,191 @@
 package com.example.rentapp.service;
 
 import com.example.rentapp.entity.Payment;
+import com.example.rentapp.entity.PaymentOutbox;
 import com.example.rentapp.entity.Rental;
+import com.example.rentapp.repository.PaymentOutboxRepository;
 import com.example.rentapp.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Optional;
 
+/**
+ * Платежи проходят через очередь payment_outbox: запрос записывается в транзакции пользователя,
+ * шлюз вызывает {@link PaymentOutboxWorker}, а результат сохраняется здесь же, идемпотентно
+ * по ключу запроса.
+ */
+@Slf4j
 @Service
 public class PaymentService {
 
+    public static final String DEPOSIT_METHOD = "DEPOSIT";
+
+    /** Событие после записи запроса в очередь; обработчик получает его только после коммита */
+    public record DepositRequested(Long outboxId) {
+    }
+
     @Autowired
     private PaymentRepository paymentRepository;
 
+    @Autowired
+    private PaymentOutboxRepository outboxRepository;
+
     @Autowired
     private RentalService rentalService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.payments.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.payments.retry-delay-ms:2000}")
+    private long retryDelayMillis;
+
+    public static String depositKey(Long rentalId) {
+        return "DEPOSIT-" + rentalId;
+    }
+
+    /**
+     * Ключ запроса к шлюзу: повторы одной отправки идут под одним ключом, новая отправка после
+     * отказа — под новым, иначе шлюз вернул бы прежний отказ
+     */
+    public static String gatewayKey(PaymentOutbox entry) {
+        return entry.getSubmission() == 0
+                ? entry.getIdempotencyKey()
+                : entry.getIdempotencyKey() + "/" + entry.getSubmission();
+    }
+
+    /**
+     * Ставит оплату депозита в очередь. Повторный вызов для той же аренды возвращает уже
+     * существующий запрос; отклонённый ранее запрос отправляется заново под новым ключом шлюза.
+     * При одновременной отправке двух форм вторая получит DataIntegrityViolationException.
+     */
+    @Transactional
+    public PaymentOutbox requestDeposit(Long rentalId, BigDecimal amount) {
+        Optional<PaymentOutbox> existing = outboxRepository.findByIdempotencyKey(depositKey(rentalId));
+        PaymentOutbox entry;
+        if (existing.isEmpty()) {
+            entry = new PaymentOutbox();
+            entry.setRentalId(rentalId);
+            entry.setAmount(amount);
+            entry.setPaymentMethod(DEPOSIT_METHOD);
+            entry.setIdempotencyKey(depositKey(rentalId));
+            entry = outboxRepository.saveAndFlush(entry);
+        } else if (PaymentOutbox.FAILED.equals(existing.get().getStatus())) {
+            entry = existing.get();
+            entry.setStatus(PaymentOutbox.PENDING);
+            entry.setSubmission(entry.getSubmission() + 1);
+            entry.setAttempts(0);
+            entry.setNextAttemptAt(LocalDateTime.now());
+            entry.setLastError(null);
+            entry.setProcessedAt(null);
+        } else {
+            return existing.get();
+        }
+        eventPublisher.publishEvent(new DepositRequested(entry.getId()));
+        return entry;
+    }
+
+    /** Запрос на оплату депозита ждёт обработки или обрабатывается */
+    @Transactional(readOnly = true)
+    public boolean isDepositInProgress(Long rentalId) {
+        return outboxRepository.findByIdempotencyKey(depositKey(rentalId))
+                .map(entry -> PaymentOutbox.PENDING.equals(entry.getStatus())
+                        || PaymentOutbox.PROCESSING.equals(entry.getStatus()))
+                .orElse(false);
+    }
+
     /**
-     * Создаёт платёж (депозит) для аренды
+     * Сохраняет одобренное шлюзом списание. Платёж создаётся, только если его ещё нет
+     * (повтор после падения между шлюзом и коммитом), при гонке двух обработчиков второй
+     * упрётся в уникальный ключ payments.idempotency_key.
+     * Если аренду отменили, пока шлюз проводил списание, платёж не записывается: запись
+     * закрывается как CANCELLED с номером транзакции для возврата.
+     * Блокировки берутся в том же порядке, что и при смене статуса аренды (сначала аренда, потом
+     * запись очереди), иначе одновременные отмена и сохранение результата взаимно блокируются.
      */
-    public Payment createPayment(Long rentalId, BigDecimal amount, String paymentMethod) {
-        Optional<Rental> rentalOpt = rentalService.findById(rentalId);
-        if (rentalOpt.isPresent()) {
+    @Transactional
+    public void completeDeposit(Long outboxId, String transactionId) {
+        Long rentalId = outboxRepository.findRentalIdById(outboxId).orElse(null);
+        if (rentalId == null) {
+            return;
+        }
+        Rental rental = rentalService.findByIdForUpdate(rentalId).orElse(null);
+        PaymentOutbox entry = outboxRepository.findByIdForUpdate(outboxId).orElse(null);
+        if (entry == null || PaymentOutbox.DONE.equals(entry.getStatus())) {
+            return;
+        }
+        if (!paymentRepository.existsByIdempotencyKey(entry.getIdempotencyKey())) {
+            if (rental == null) {
+                fail(entry, "Аренда удалена");
+                return;
+            }
+            if (PaymentOutbox.CANCELLED.equals(entry.getStatus()) || !"PENDING".equalsIgnoreCase(rental.getStatus())) {
+                entry.setStatus(PaymentOutbox.CANCELLED);
+                entry.setLastError(truncate("Аренда не ожидает оплаты, списание " + transactionId + " требует возврата"));
+                entry.setProcessedAt(LocalDateTime.now());
+                log.error("Депозит {} списан после отмены аренды, требуется возврат транзакции {}",
+                        entry.getIdempotencyKey(), transactionId);
+                return;
+            }
             Payment payment = new Payment();
-            payment.setRental(rentalOpt.get());
-            payment.setAmount(amount);
-            payment.setPaymentMethod(paymentMethod);
+            payment.setRental(rental);
+            payment.setAmount(entry.getAmount());
+            payment.setPaymentMethod(entry.getPaymentMethod());
             payment.setStatus("COMPLETED");
             payment.setPaymentDate(LocalDateTime.now());
+            payment.setIdempotencyKey(entry.getIdempotencyKey());
+            payment.setTransactionId(transactionId);
+            paymentRepository.save(payment);
+        }
+        entry.setStatus(PaymentOutbox.DONE);
+        entry.setLastError(null);
+        entry.setProcessedAt(LocalDateTime.now());
+        rentalService.markDepositPaid(entry.getRentalId());
+    }
+
+    /**
+     * Неудачная попытка: временная ошибка откладывает запрос с экспоненциальной паузой
+     * (retry-delay-ms, 2×, 4× ...) до max-attempts попыток, отказ шлюза завершает его сразу.
+     */
+    @Transactional
+    public void retryOrFail(Long outboxId, String error, boolean retryable) {
+        PaymentOutbox entry = outboxRepository.findByIdForUpdate(outboxId).orElse(null);
+        // DONE — результат уже сохранён, CANCELLED — аренда отменена во время попытки
+        if (entry == null || PaymentOutbox.DONE.equals(entry.getStatus())
+                || PaymentOutbox.CANCELLED.equals(entry.getStatus())) {
+            return;
+        }
+        if (!retryable || entry.getAttempts() >= maxAttempts) {
+            fail(entry, error);
+            return;
+        }
+        long delay = retryDelayMillis << Math.min(Math.max(entry.getAttempts() - 1, 0), 10);
+        entry.setStatus(PaymentOutbox.PENDING);
+        entry.setNextAttemptAt(LocalDateTime.now().plusNanos(delay * 1_000_000));
+        entry.setLastError(truncate(error));
+        log.info("Платёж {} отложен на {} мс после попытки {}: {}", entry.getIdempotencyKey(), delay, entry.getAttempts(), error);
+    }
+
+    private void fail(PaymentOutbox entry, String error) {
+        entry.setStatus(PaymentOutbox.FAILED);
+        entry.setLastError(truncate(error));
+        entry.setProcessedAt(LocalDateTime.now());
+        log.warn("Платёж {} не проведён после {} попыток: {}", entry.getIdempotencyKey(), entry.getAttempts(), error);
+    }
 
-            return paymentRepository.save(payment);
+    private static String truncate(String error) {
+        if (error == null) {
+            return null;
         }
-        throw new RuntimeException("Аренда не найдена");
+        return error.length() <= 500 ? error : error.substring(0, 500);
     }
 }
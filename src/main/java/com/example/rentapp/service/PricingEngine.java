@@ -0,0 +1,303 @@
+package com.example.rentapp.service;
+
+import com.example.rentapp.config.CacheConfig;
+import com.example.rentapp.config.Untimed;
+import com.example.rentapp.dto.PriceQuote;
+import com.example.rentapp.entity.Car;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Расчёт стоимости аренды. Дни делятся на четыре класса (будни/выходные × вне сезона/сезон),
+ * цена дня каждого класса заранее посчитана для автомобиля в копейках ({@link Tariff}, кэш tariffs),
+ * а число дней каждого класса в периоде берётся из префиксных сумм календаря за O(1).
+ * Итог ({@link #totalMinor}) считается в long, без BigDecimal и без выделения памяти.
+ * Считаются дни с даты начала до даты окончания, не меньше одного (как Rental.getRentalDays).
+ * Период длиннее app.pricing.max-days или за пределами календаря отклоняется ({@link #checkPeriod}),
+ * поэтому время расчёта не зависит от дат во входных данных. Календарь строится от текущей даты
+ * и сдвигается каждую полночь ({@link #rebuildCalendar()}), чтобы окно бронирования вперёд не сокращалось.
+ */
+@Slf4j
+@Service
+public class PricingEngine {
+
+    private static final int WEEKEND = 1;
+    private static final int SEASON = 2;
+    private static final int CLASSES = 4;
+    private static final long BASIS_POINTS = 10_000;
+
+    // календарь классов дней: от года назад до трёх лет вперёд; даты вне окна не принимаются
+    private static final int CALENDAR_PAST_DAYS = 366;
+    private static final int CALENDAR_DAYS = 4 * 366;
+
+    /**
+     * Цены дня автомобиля по классам в копейках, индекс — биты WEEKEND | SEASON
+     */
+    public record Tariff(Long carId, long dailyMinor, long[] ratesMinor) {
+    }
+
+    /**
+     * prefix[c][i] — число дней класса c в [start, start + i). Заменяется целиком: расчёт берёт
+     * ссылку один раз и работает с согласованным снимком
+     */
+    private record Calendar(long start, int[][] prefix) {
+    }
+
+    private final CarService carService;
+    private final Cache tariffCache;
+
+    private final long[] multipliers = new long[CLASSES];
+    private final boolean[] weekendDays = new boolean[7];
+    private final List<MonthDay[]> seasons = new ArrayList<>();
+    private final int[] discountFromDays;
+    private final int[] discountPercents;
+    private final int maxDays;
+
+    private final String version;
+
+    private volatile Calendar calendar;
+
+    public PricingEngine(CarService carService,
+                         CacheManager cacheManager,
+                         @Value("${app.pricing.weekend-multiplier:1.0}") BigDecimal weekendMultiplier,
+                         @Value("${app.pricing.weekend-days:SATURDAY,SUNDAY}") List<DayOfWeek> weekend,
+                         @Value("${app.pricing.season-multiplier:1.0}") BigDecimal seasonMultiplier,
+                         @Value("${app.pricing.seasons:}") List<String> seasonRanges,
+                         @Value("${app.pricing.long-rental-discounts:}") List<String> discounts,
+                         @Value("${app.pricing.max-days:365}") int maxDays) {
+        this.carService = carService;
+        this.tariffCache = cacheManager.getCache(CacheConfig.TARIFFS);
+
+        long weekendBp = toBasisPoints(weekendMultiplier);
+        long seasonBp = toBasisPoints(seasonMultiplier);
+        multipliers[0] = BASIS_POINTS;
+        multipliers[WEEKEND] = weekendBp;
+        multipliers[SEASON] = seasonBp;
+        multipliers[WEEKEND | SEASON] = weekendBp * seasonBp / BASIS_POINTS;
+
+        weekend.forEach(day -> weekendDays[day.getValue() - 1] = true);
+        seasonRanges.stream().filter(range -> !range.isBlank()).forEach(range -> seasons.add(parseSeason(range)));
+
+        // "7:5,30:15" — от 7 дней скидка 5 %, от 30 дней 15 %
+        int[][] steps = discounts.stream()
+                .filter(step -> !step.isBlank())
+                .map(step -> step.trim().split(":"))
+                .map(parts -> new int[]{Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim())})
+                .sorted((a, b) -> Integer.compare(a[0], b[0]))
+                .toArray(int[][]::new);
+        this.discountFromDays = Arrays.stream(steps).mapToInt(step -> step[0]).toArray();
+        this.discountPercents = Arrays.stream(steps).mapToInt(step -> step[1]).toArray();
+        this.maxDays = maxDays;
+
+        // правила в каноническом виде: порядок сезонов и запись чисел в настройках на версию не влияют
+        this.version = sha256("multipliers=" + Arrays.toString(multipliers)
+                + ";weekend=" + Arrays.toString(weekendDays)
+                + ";seasons=" + seasons.stream().map(season -> season[0] + ".." + season[1]).sorted().toList()
+                + ";discounts=" + Arrays.toString(discountFromDays) + ":" + Arrays.toString(discountPercents));
+
+        rebuildCalendar();
+        log.info("Тарифы {}: выходные ×{}, сезон ×{} ({}), скидки {}",
+                version, weekendMultiplier, seasonMultiplier, seasonRanges, discounts);
+    }
+
+    /**
+     * Версия правил расчёта — SHA-256 канонической записи множителей, выходных, сезонов и скидок
+     * (hex), сохраняется в аренде рядом с зафиксированной ценой
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /** Календарь от года назад до трёх лет вперёд от сегодняшнего дня; пересобирается каждую полночь */
+    @Scheduled(cron = "0 0 0 * * *")
+    public void rebuildCalendar() {
+        rebuildCalendar(LocalDate.now());
+    }
+
+    void rebuildCalendar(LocalDate today) {
+        long start = today.toEpochDay() - CALENDAR_PAST_DAYS;
+        int[][] prefix = new int[CLASSES][CALENDAR_DAYS + 1];
+        for (int i = 0; i < CALENDAR_DAYS; i++) {
+            int dayClass = dayClass(start + i);
+            for (int c = 0; c < CLASSES; c++) {
+                prefix[c][i + 1] = prefix[c][i] + (c == dayClass ? 1 : 0);
+            }
+        }
+        calendar = new Calendar(start, prefix);
+    }
+
+    /**
+     * Период, который можно рассчитать: окончание не раньше начала, не больше max-days дней,
+     * обе даты в пределах календаря. Иначе IllegalArgumentException с причиной для пользователя
+     */
+    @Untimed
+    public void checkPeriod(LocalDate startDate, LocalDate endDate) {
+        chargedDays(calendar, startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    public Optional<Tariff> findTariff(Long carId) {
+        Tariff cached = tariffCache.get(carId, Tariff.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Tariff> tariff = carService.findViewById(carId)
+                .map(car -> tariff(car.getId(), car.getPricePerDay()));
+        tariff.ifPresent(value -> tariffCache.put(carId, value));
+        return tariff;
+    }
+
+    /** Тариф без кэша: для автомобиля, уже загруженного вызывающим кодом */
+    @Untimed
+    public Tariff tariff(Car car) {
+        return tariff(car.getId(), car.getPricePerDay());
+    }
+
+    private Tariff tariff(Long carId, BigDecimal pricePerDay) {
+        long dailyMinor = pricePerDay.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        long[] rates = new long[CLASSES];
+        for (int c = 0; c < CLASSES; c++) {
+            rates[c] = (dailyMinor * multipliers[c] + BASIS_POINTS / 2) / BASIS_POINTS;
+        }
+        return new Tariff(carId, dailyMinor, rates);
+    }
+
+    /** Итог в копейках для периода [startDate, endDate) */
+    @Untimed
+    public long totalMinor(Tariff tariff, LocalDate startDate, LocalDate endDate) {
+        Calendar cal = calendar;
+        long from = startDate.toEpochDay();
+        long days = chargedDays(cal, from, endDate.toEpochDay());
+        return discounted(subtotalMinor(cal, tariff.ratesMinor(), from, from + days), days);
+    }
+
+    /** Итог в рублях для периода [startDate, endDate) */
+    @Untimed
+    public BigDecimal price(Tariff tariff, LocalDate startDate, LocalDate endDate) {
+        return BigDecimal.valueOf(totalMinor(tariff, startDate, endDate), 2);
+    }
+
+    @Untimed
+    public PriceQuote quote(Tariff tariff, LocalDate startDate, LocalDate endDate) {
+        Calendar cal = calendar;
+        long from = startDate.toEpochDay();
+        long days = chargedDays(cal, from, endDate.toEpochDay());
+        long to = from + days;
+        long subtotal = subtotalMinor(cal, tariff.ratesMinor(), from, to);
+        long weekend = count(cal, WEEKEND, from, to) + count(cal, WEEKEND | SEASON, from, to);
+        long season = count(cal, SEASON, from, to) + count(cal, WEEKEND | SEASON, from, to);
+        return new PriceQuote(tariff.carId(), startDate, endDate, days, weekend, season,
+                BigDecimal.valueOf(tariff.dailyMinor(), 2), BigDecimal.valueOf(subtotal, 2),
+                discountPercent(days), BigDecimal.valueOf(discounted(subtotal, days), 2));
+    }
+
+    private long chargedDays(Calendar cal, long from, long to) {
+        if (to < from) {
+            throw new IllegalArgumentException("Дата окончания раньше даты начала");
+        }
+        long days = Math.max(to - from, 1);
+        if (days > maxDays) {
+            throw new IllegalArgumentException("Период аренды не может быть длиннее " + maxDays + " дней");
+        }
+        if (from < cal.start() || from + days > cal.start() + CALENDAR_DAYS) {
+            throw new IllegalArgumentException("Даты должны быть в пределах с " + LocalDate.ofEpochDay(cal.start())
+                    + " по " + LocalDate.ofEpochDay(cal.start() + CALENDAR_DAYS - 1));
+        }
+        return days;
+    }
+
+    // [from, to) уже проверен chargedDays
+    private static long subtotalMinor(Calendar cal, long[] rates, long from, long to) {
+        int a = (int) (from - cal.start());
+        int b = (int) (to - cal.start());
+        int[][] prefix = cal.prefix();
+        long subtotal = 0;
+        for (int c = 0; c < CLASSES; c++) {
+            subtotal += (prefix[c][b] - prefix[c][a]) * rates[c];
+        }
+        return subtotal;
+    }
+
+    private static long count(Calendar cal, int dayClass, long from, long to) {
+        int[] prefix = cal.prefix()[dayClass];
+        return prefix[(int) (to - cal.start())] - prefix[(int) (from - cal.start())];
+    }
+
+    private long discounted(long subtotal, long days) {
+        int percent = discountPercent(days);
+        return percent == 0 ? subtotal : (subtotal * (100 - percent) + 50) / 100;
+    }
+
+    private int discountPercent(long days) {
+        int percent = 0;
+        for (int i = 0; i < discountFromDays.length && days >= discountFromDays[i]; i++) {
+            percent = discountPercents[i];
+        }
+        return percent;
+    }
+
+    private int dayClass(long epochDay) {
+        // 1970-01-01 — четверг, Math.floorMod(epochDay + 3, 7) == 0 для понедельника
+        int dayClass = weekendDays[Math.floorMod(epochDay + 3, 7)] ? WEEKEND : 0;
+        if (!seasons.isEmpty() && inSeason(MonthDay.from(LocalDate.ofEpochDay(epochDay)))) {
+            dayClass |= SEASON;
+        }
+        return dayClass;
+    }
+
+    private boolean inSeason(MonthDay day) {
+        for (MonthDay[] season : seasons) {
+            MonthDay start = season[0];
+            MonthDay end = season[1];
+            boolean inside = start.isAfter(end)
+                    ? !day.isBefore(start) || !day.isAfter(end)
+                    : !day.isBefore(start) && !day.isAfter(end);
+            if (inside) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // "06-01..08-31"; период может переходить через Новый год: "12-25..01-08"
+    private static MonthDay[] parseSeason(String range) {
+        String[] bounds = range.trim().split("\\.\\.");
+        if (bounds.length != 2) {
+            throw new IllegalArgumentException("Сезон задаётся как MM-dd..MM-dd: " + range);
+        }
+        return new MonthDay[]{MonthDay.parse("--" + bounds[0].trim()), MonthDay.parse("--" + bounds[1].trim())};
+    }
+
+    private static String sha256(String rules) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(rules.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    private static long toBasisPoints(BigDecimal multiplier) {
+        if (multiplier.signum() <= 0) {
+            throw new IllegalArgumentException("Множитель тарифа должен быть положительным: " + multiplier);
+        }
+        return multiplier.movePointRight(4).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
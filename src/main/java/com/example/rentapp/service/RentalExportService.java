@@ -0,0 +1,249 @@
+package com.example.rentapp.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Выгрузка аренд с платежами, автомобилем и клиентом для финансов (CSV, NDJSON).
+ * Строки читаются курсором JDBC порциями по app.export.fetch-size и сразу пишутся в поток ответа,
+ * минуя Hibernate, поэтому память не зависит от размера выгрузки. Аренда без платежей — одна строка
+ * с пустыми колонками платежа, с несколькими платежами — по строке на платёж.
+ */
+@Slf4j
+@Service
+public class RentalExportService {
+
+    public enum Format {
+        CSV("text/csv;charset=UTF-8", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /** Период по дате бронирования (created_at, границы включительно) и статусы аренды; null — без условия */
+    public record Filter(LocalDate from, LocalDate to, List<String> statuses) {
+    }
+
+    private static final String[] COLUMNS = {
+            "rental_id", "created_at", "start_date", "end_date", "status", "total_price", "deposit_paid",
+            "pricing_version", "car_id", "car_brand", "car_model", "user_id", "username", "email",
+            "payment_id", "payment_date", "payment_amount", "payment_method", "payment_status", "transaction_id"
+    };
+
+    private static final String SELECT = """
+            SELECT r.id, r.created_at, r.start_date, r.end_date, r.status, r.total_price, r.deposit_paid,
+                   r.pricing_version, c.id, c.brand, c.model, u.id, u.username, u.email,
+                   p.id, p.payment_date, p.amount, p.payment_method, p.status, p.transaction_id
+            FROM rentals r
+            LEFT JOIN cars c ON c.id = r.car_id
+            LEFT JOIN users u ON u.id = r.user_id
+            LEFT JOIN payments p ON p.rental_id = r.id
+            """;
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public RentalExportService(DataSource dataSource,
+                               ObjectMapper objectMapper,
+                               @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Пишет выгрузку в out и возвращает число строк. Поток не закрывается.
+     * Транзакция нужна курсору PostgreSQL: с autocommit драйвер читает весь результат сразу.
+     */
+    @Transactional(readOnly = true)
+    public long export(Filter filter, Format format, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder(SELECT).append("WHERE 1 = 1");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (filter.from() != null) {
+            sql.append(" AND r.created_at >= :from");
+            params.addValue("from", filter.from().atStartOfDay());
+        }
+        if (filter.to() != null) {
+            sql.append(" AND r.created_at < :to");
+            params.addValue("to", filter.to().plusDays(1).atStartOfDay());
+        }
+        if (filter.statuses() != null && !filter.statuses().isEmpty()) {
+            sql.append(" AND upper(r.status) IN (:statuses)");
+            params.addValue("statuses", filter.statuses().stream().map(String::toUpperCase).toList());
+        }
+        // порядок индекса idx_rentals_created_id: строки идут из индекса без сортировки всего результата,
+        // первая строка уходит клиенту сразу; платежи аренды — в порядке индекса idx_payments_rental
+        sql.append(" ORDER BY r.created_at, r.id");
+
+        long started = System.currentTimeMillis();
+        RowWriter writer = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(objectMapper, out);
+        long[] rows = {0};
+        try {
+            jdbcTemplate.query(sql.toString(), params, rs -> {
+                try {
+                    writer.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            // клиент оборвал загрузку — курсор закрывается вместе с транзакцией
+            throw e.getCause();
+        }
+        writer.finish();
+        log.info("Выгрузка аренд ({}): {} строк за {} мс", format, rows[0], System.currentTimeMillis() - started);
+        return rows[0];
+    }
+
+    // даты — ISO-8601 независимо от СУБД, время всегда до секунд
+    private static Object value(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof java.sql.Timestamp timestamp) {
+            return TIMESTAMP.format(timestamp.toLocalDateTime());
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        return value;
+    }
+
+    private interface RowWriter {
+
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    /** RFC 4180: запятая, CRLF, кавычки при необходимости */
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 1; i <= COLUMNS.length; i++) {
+                if (i > 1) {
+                    writer.write(',');
+                }
+                Object value = value(rs, i);
+                if (value instanceof BigDecimal decimal) {
+                    writer.write(decimal.toPlainString());
+                } else if (value instanceof String text) {
+                    writeText(text);
+                } else if (value != null) {
+                    writer.write(value.toString());
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeText(String text) throws IOException {
+            // строка, начинающаяся с =, +, - или @, в Excel выполняется как формула
+            boolean formula = !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0;
+            boolean quote = formula || text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                    || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            if (formula) {
+                writer.write('\'');
+            }
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /** Один JSON-объект на строку */
+    private static final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // объекты разделяет перевод строки, а не пробел по умолчанию
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 1; i <= COLUMNS.length; i++) {
+                generator.writeFieldName(COLUMNS[i - 1]);
+                Object value = value(rs, i);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (value instanceof Long || value instanceof Integer) {
+                    generator.writeNumber(((Number) value).longValue());
+                } else if (value instanceof Boolean flag) {
+                    generator.writeBoolean(flag);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package com.example.rentapp.service;
 
+import com.example.rentapp.dto.GroupCount;
+import com.example.rentapp.dto.RentalListItemDto;
+import com.example.rentapp.dto.RentalListPage;
 import com.example.rentapp.entity.Car;
 import com.example.rentapp.entity.Rental;
 import com.example.rentapp.entity.User;
+import com.example.rentapp.repository.PaymentOutboxRepository;
 import com.example.rentapp.repository.RentalRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,31 +31,65 @@ public class RentalService {
     @Autowired
     private RentalRepository rentalRepository;
 
+    @Autowired
+    private PaymentOutboxRepository outboxRepository;
+
     @Autowired
     private CarService carService;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private CarBookingLocks carBookingLocks;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private DashboardSnapshotCache dashboardSnapshotCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Блокировка берётся до начала транзакции и отпускается после коммита,
+    // иначе следующий поток может проверить пересечения до того, как наша аренда станет видна
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Rental createRental(Long carId, Long userId, Rental rental) {
-        Car car = carService.findById(carId)
+        validateDates(rental.getStartDate(), rental.getEndDate());
+        return carBookingLocks.withCarLock(carId,
+                () -> transactionTemplate.execute(status -> bookCar(carId, userId, rental)));
+    }
+
+    private Rental bookCar(Long carId, Long userId, Rental rental) {
+        // блокировка строки автомобиля сериализует бронирования одной машины между узлами
+        Car car = carService.findByIdForUpdate(carId)
                 .orElseThrow(() -> new RuntimeException("Автомобиль не найден"));
         User user = userService.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
 
-        validateDates(rental.getStartDate(), rental.getEndDate());
-
-        if (!"AVAILABLE".equalsIgnoreCase(car.getStatus())) {
+        if ("MAINTENANCE".equalsIgnoreCase(car.getStatus())) {
             throw new RuntimeException("Автомобиль недоступен для аренды");
         }
+        if (isBooked(carId, rental.getStartDate(), rental.getEndDate())) {
+            throw new RuntimeException("Автомобиль уже забронирован на выбранные даты");
+        }
 
         rental.setCar(car);
         rental.setUser(user);
         rental.setStatus("PENDING");
         rental.setDepositPaid(false);
-        rental.calculateTotalPrice();
+        // цена по строке автомобиля, заблокированной выше, а не по тарифу из кэша
+        rental.setTotalPrice(pricingEngine.price(pricingEngine.tariff(car), rental.getStartDate(), rental.getEndDate()));
+        rental.setPricingVersion(pricingEngine.getVersion());
 
-        return rentalRepository.save(rental);
+        Rental saved = rentalRepository.save(rental);
+        dashboardSnapshotCache.invalidate();
+        return saved;
+    }
+
+    public boolean isBooked(Long carId, LocalDate startDate, LocalDate endDate) {
+        return rentalRepository.existsOverlapping(carId, startDate, endDate, Rental.BOOKING_STATUSES);
     }
 
     public List<Rental> findByUserId(Long userId) {
@@ -65,39 +108,107 @@ public class RentalService {
         return rentalRepository.findByStatusIgnoreCase(status);
     }
 
+    @Transactional(readOnly = true)
+    public List<RentalListItemDto> findListItemsByUser(Long userId, String status) {
+        return status != null
+                ? rentalRepository.findListItemsByUserIdAndStatus(userId, status)
+                : rentalRepository.findListItemsByUserId(userId);
+    }
+
+    /**
+     * Страница списка менеджера после курсора вида "createdAt_id".
+     * Стоимость запроса не зависит от глубины страницы: используется индекс (created_at, id).
+     * Некорректный курсор — IllegalArgumentException, а не молчаливый возврат к первой странице
+     */
+    @Transactional(readOnly = true)
+    public RentalListPage findManagerPage(String status, Long userId, String cursor, int size) {
+        PageRequest limit = PageRequest.ofSize(size + 1);
+        List<RentalListItemDto> items;
+        if (cursor != null && !cursor.isBlank()) {
+            int separator = cursor.lastIndexOf('_');
+            try {
+                LocalDateTime createdAt = LocalDateTime.parse(cursor.substring(0, Math.max(separator, 0)));
+                Long id = Long.valueOf(cursor.substring(separator + 1));
+                items = rentalRepository.findManagerPageAfter(status, userId, createdAt, id, limit);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Некорректный курсор страницы: " + cursor, e);
+            }
+        } else {
+            items = rentalRepository.findManagerPage(status, userId, limit);
+        }
+
+        if (items.size() <= size) {
+            return new RentalListPage(items, null);
+        }
+        List<RentalListItemDto> page = items.subList(0, size);
+        RentalListItemDto last = page.get(size - 1);
+        return new RentalListPage(page, last.getCreatedAt() + "_" + last.getId());
+    }
+
     public Optional<Rental> findById(Long id) {
         return rentalRepository.findById(id);
     }
 
+    /** Аренда под блокировкой строки до конца транзакции */
+    public Optional<Rental> findByIdForUpdate(Long id) {
+        return rentalRepository.findByIdForUpdate(id);
+    }
+
+    /** Аренда вместе с автомобилем — для страниц, которые его показывают */
+    public Optional<Rental> findWithCarById(Long id) {
+        return rentalRepository.findWithCarById(id);
+    }
+
     public Rental save(Rental rental) {
-        return rentalRepository.save(rental);
+        Rental saved = rentalRepository.save(rental);
+        dashboardSnapshotCache.invalidate();
+        return saved;
     }
 
-    public Rental updateRentalStatus(Long rentalId, String status) {
-        Rental rental = rentalRepository.findById(rentalId)
-                .orElseThrow(() -> new RuntimeException("Rental not found"));
+    /**
+     * Отмечает депозит оплаченным; повторный вызов ничего не меняет.
+     * Возвращает false, если депозит уже был отмечен или аренды нет.
+     */
+    public boolean markDepositPaid(Long rentalId) {
+        boolean updated = rentalRepository.markDepositPaid(rentalId) > 0;
+        if (updated) {
+            dashboardSnapshotCache.invalidate();
+        }
+        return updated;
+    }
 
+    /**
+     * Меняет только статус аренды (UPDATE одной строки без загрузки сущности),
+     * цена и остальные колонки не перезаписываются.
+     * Аренда, вышедшая из PENDING, больше не ждёт депозита: её незавершённые запросы оплаты
+     * отменяются в той же транзакции.
+     */
+    public void updateRentalStatus(Long rentalId, String status) {
         if (status == null || status.isBlank()) {
             throw new RuntimeException("Status cannot be null or empty");
         }
 
         String normalizedStatus = status.trim().toUpperCase();
-        rental.setStatus(normalizedStatus);
+        if (rentalRepository.updateStatus(rentalId, normalizedStatus) == 0) {
+            throw new RuntimeException("Rental not found");
+        }
+        if (!"PENDING".equals(normalizedStatus)) {
+            outboxRepository.cancelOutstanding(rentalId, LocalDateTime.now());
+        }
 
-        Car car = rental.getCar();
-        if (car != null && car.getId() != null) {
+        rentalRepository.findCarIdById(rentalId).ifPresent(carId -> {
             try {
                 switch (normalizedStatus) {
-                    case "CONFIRMED", "ACTIVE" -> carService.updateCarStatus(car.getId(), "RENTED");
-                    case "COMPLETED", "CANCELLED" -> carService.updateCarStatus(car.getId(), "AVAILABLE");
+                    case "CONFIRMED", "ACTIVE" -> carService.updateCarStatus(carId, "RENTED");
+                    case "COMPLETED", "CANCELLED" -> carService.updateCarStatus(carId, "AVAILABLE");
                     default -> {
                     }
                 }
             } catch (Exception e) {
             }
-        }
+        });
 
-        return rentalRepository.save(rental);
+        dashboardSnapshotCache.invalidate();
     }
 
     public long getTotalRentals() {
@@ -105,10 +216,32 @@ public class RentalService {
     }
 
     public long countByStatus(String status) {
-        return rentalRepository.findByStatusIgnoreCase(status).size();
+        return rentalRepository.countByStatusIgnoreCase(status);
     }
 
-    public Map<String, Long> buildStatusSummary(List<Rental> rentals) {
+    public Map<String, Long> countVisibleByStatus() {
+        Map<String, Long> summary = new HashMap<>();
+        for (GroupCount group : rentalRepository.countVisibleGroupedByStatus()) {
+            String status = group.getGroupKey() == null ? "UNKNOWN" : group.getGroupKey();
+            summary.merge(status, group.getCount(), Long::sum);
+        }
+        return summary;
+    }
+
+    public double getAverageRentalDuration() {
+        Double average = rentalRepository.averageDurationDays();
+        return average != null ? average : 0.0;
+    }
+
+    public long countByUserId(Long userId) {
+        return rentalRepository.countByUserId(userId);
+    }
+
+    public long countByUserIdAndStatus(Long userId, String status) {
+        return rentalRepository.countByUserIdAndStatusIgnoreCase(userId, status);
+    }
+
+    public Map<String, Long> buildStatusSummary(List<RentalListItemDto> rentals) {
         if (rentals == null || rentals.isEmpty()) {
             return new HashMap<>();
         }
@@ -125,11 +258,15 @@ public class RentalService {
                 .orElseThrow(() -> new RuntimeException("Rental not found"));
 
         Car car = rental.getCar();
-        if (car != null && ("CONFIRMED".equalsIgnoreCase(rental.getStatus()) || "ACTIVE".equalsIgnoreCase(rental.getStatus()))) {
-            carService.updateCarStatus(car.getId(), "AVAILABLE");
-        }
+        boolean releaseCar = car != null
+                && ("CONFIRMED".equalsIgnoreCase(rental.getStatus()) || "ACTIVE".equalsIgnoreCase(rental.getStatus()));
 
         rentalRepository.delete(rental);
+        // после удаления: UPDATE статуса очищает контекст персистентности
+        if (releaseCar) {
+            carService.updateCarStatus(car.getId(), "AVAILABLE");
+        }
+        dashboardSnapshotCache.invalidate();
     }
 
     private void validateDates(LocalDate startDate, LocalDate endDate) {
@@ -142,5 +279,7 @@ public class RentalService {
         if (startDate.isBefore(LocalDate.now())) {
             throw new RuntimeException("Дата начала должна быть сегодня или позже");
         }
+        // длина периода и календарь тарифов — до блокировки автомобиля
+        pricingEngine.checkPeriod(startDate, endDate);
     }
 }
@@ -0,0 +1,60 @@
+package com.example.rentapp.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Локальная заглушка шлюза (app.payments.gateway=stub): одобряет списание после задержки
+ * app.payments.stub.latency-ms, с вероятностью failure-rate изображает недоступность шлюза.
+ * Повторный запрос с тем же ключом возвращает ту же транзакцию, как настоящий шлюз.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.payments.gateway", havingValue = "stub", matchIfMissing = true)
+public class StubPaymentGateway implements PaymentGateway {
+
+    private final long latencyMillis;
+    private final double failureRate;
+    private final Map<String, String> transactions = new ConcurrentHashMap<>();
+
+    public StubPaymentGateway(@Value("${app.payments.stub.latency-ms:300}") long latencyMillis,
+                              @Value("${app.payments.stub.failure-rate:0}") double failureRate) {
+        this.latencyMillis = latencyMillis;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public Result charge(Charge charge) {
+        pause();
+        String existing = transactions.get(charge.idempotencyKey());
+        if (existing != null) {
+            return Result.approved(existing);
+        }
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new IllegalStateException("Платёжный шлюз недоступен (заглушка)");
+        }
+        String transactionId = transactions.computeIfAbsent(charge.idempotencyKey(), key -> "STUB-" + UUID.randomUUID());
+        log.debug("Заглушка шлюза: {} {} для аренды {} -> {}",
+                charge.paymentMethod(), charge.amount(), charge.rentalId(), transactionId);
+        return Result.approved(transactionId);
+    }
+
+    private void pause() {
+        if (latencyMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Запрос к шлюзу прерван", e);
+        }
+    }
+}
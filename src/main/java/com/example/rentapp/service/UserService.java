@@ -1,9 +1,16 @@
 package com.example.rentapp.service;
 
+import com.example.rentapp.config.CacheConfig;
+import com.example.rentapp.dto.CurrentUser;
+import com.example.rentapp.dto.GroupCount;
 import com.example.rentapp.dto.UserRegistrationDto;
 import com.example.rentapp.entity.User;
 import com.example.rentapp.repository.UserRepository;
 import com.example.rentapp.security.CustomUserDetails;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,7 +18,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -19,10 +28,14 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final Cache usersCache;
+    private final Cache userDetailsCache;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, CacheManager cacheManager) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.usersCache = cacheManager.getCache(CacheConfig.USERS);
+        this.userDetailsCache = cacheManager.getCache(CacheConfig.USER_DETAILS);
     }
 
     public List<User> findAll() {
@@ -37,23 +50,66 @@ public class UserService {
         return userRepository.findByUsername(username);
     }
 
-    public User getCurrentUser() {
+    /**
+     * Снимок текущего пользователя из кэша users. Для изменения — updateProfile, changePassword,
+     * updateDriverLicense, updateCard: они работают со свежей сущностью, а не с этим экземпляром
+     */
+    public CurrentUser getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.isAuthenticated() &&
                 !"anonymousUser".equals(authentication.getPrincipal())) {
 
             Object principal = authentication.getPrincipal();
             if (principal instanceof CustomUserDetails customUserDetails) {
-                return customUserDetails.getUser();
+                Long id = customUserDetails.getId();
+                return usersCache.get(id, () -> userRepository.findById(id).map(CurrentUser::from).orElse(null));
             } else if (principal instanceof UserDetails userDetails) {
-                return findByUsername(userDetails.getUsername()).orElse(null);
+                return findByUsername(userDetails.getUsername()).map(CurrentUser::from).orElse(null);
             } else if (principal instanceof String username) {
-                return findByUsername(username).orElse(null);
+                return findByUsername(username).map(CurrentUser::from).orElse(null);
             }
         }
         return null;
     }
 
+    @Transactional
+    public void updateProfile(Long id, String firstName, String lastName, String email, String phone) {
+        User user = load(id);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(email);
+        user.setPhone(phone);
+        evict(id, user.getUsername());
+    }
+
+    /** false, если текущий пароль не подошёл */
+    @Transactional
+    public boolean changePassword(Long id, String currentPassword, String newPassword) {
+        User user = load(id);
+        if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
+            return false;
+        }
+        user.setPassword(passwordEncoder.encode(newPassword));
+        evict(id, user.getUsername());
+        return true;
+    }
+
+    @Transactional
+    public void updateDriverLicense(Long id, String series, String number) {
+        User user = load(id);
+        user.setDriverLicenseSeries(series);
+        user.setDriverLicenseNumber(number);
+        evict(id, user.getUsername());
+    }
+
+    @Transactional
+    public void updateCard(Long id, String last4, String expiry) {
+        User user = load(id);
+        user.setCardLast4(last4);
+        user.setCardExpiry(expiry);
+        evict(id, user.getUsername());
+    }
+
     public User registerUser(UserRegistrationDto registrationDto) {
         if (existsByUsername(registrationDto.getUsername())) {
             throw new RuntimeException("Username already exists");
@@ -74,7 +130,11 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    // UserDetails сбрасывается и под прежним именем: после переименования старая запись осталась бы в кэше
+    @Transactional
     public User save(User user) {
+        String previousUsername = user.getId() != null
+                ? userRepository.findUsernameById(user.getId()).orElse(null) : null;
         if (user.getPassword() != null && !user.getPassword().isEmpty() &&
                 !user.getPassword().startsWith("$2")) {
             user.setPassword(passwordEncoder.encode(user.getPassword()));
@@ -84,10 +144,17 @@ public class UserService {
         } else {
             user.setRole(user.getRole().toUpperCase());
         }
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        evict(saved.getId(), previousUsername);
+        userDetailsCache.evict(saved.getUsername());
+        return saved;
     }
 
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.USER_DETAILS, allEntries = true)
+    })
     public void deleteById(Long id) {
         userRepository.deleteById(id);
     }
@@ -101,12 +168,32 @@ public class UserService {
     }
 
     public List<User> findByRole(String role) {
-        return userRepository.findAll().stream()
-                .filter(user -> role.equals(user.getRole()))
-                .toList();
+        return userRepository.findByRole(role);
+    }
+
+    public Map<String, Long> countByRole() {
+        Map<String, Long> counts = new HashMap<>();
+        for (GroupCount group : userRepository.countGroupedByRole()) {
+            if (group.getGroupKey() != null) {
+                counts.put(group.getGroupKey(), group.getCount());
+            }
+        }
+        return counts;
     }
 
     public long getTotalUsers() {
         return userRepository.count();
     }
+
+    private User load(Long id) {
+        return userRepository.findById(id).orElseThrow(() -> new RuntimeException("Пользователь не найден"));
+    }
+
+    // в транзакции кэш сбрасывается после коммита (TransactionAwareCacheManagerProxy)
+    private void evict(Long id, String username) {
+        usersCache.evict(id);
+        if (username != null) {
+            userDetailsCache.evict(username);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,5 @@
+-- Keyset-пагинация списка менеджера идёт по (created_at, id): строки с NULL выпадали из страниц
+-- после курсора. Старым арендам без даты бронирования проставляется дата начала аренды.
+UPDATE rentals SET created_at = COALESCE(CAST(start_date AS TIMESTAMP), CURRENT_TIMESTAMP) WHERE created_at IS NULL;
+ALTER TABLE rentals ALTER COLUMN created_at SET DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE rentals ALTER COLUMN created_at SET NOT NULL;
@@ -0,0 +1,2 @@
+-- Версия правил тарифа — SHA-256 в hex (64 символа) вместо 32-битного хэша
+ALTER TABLE rentals ALTER COLUMN pricing_version SET DATA TYPE VARCHAR(64);
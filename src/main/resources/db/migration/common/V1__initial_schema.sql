@@ -0,0 +1,79 @@
+-- Исходная схема, которую раньше создавал spring.jpa.hibernate.ddl-auto=update.
+-- На существующих базах эта миграция пропускается (spring.flyway.baseline-version=1).
+
+CREATE TABLE car_categories (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    description TEXT,
+    CONSTRAINT uk_car_categories_name UNIQUE (name)
+);
+
+CREATE TABLE cars (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    brand         VARCHAR(255),
+    model         VARCHAR(255),
+    year_value    INTEGER,
+    price_per_day NUMERIC(38, 2),
+    status        VARCHAR(255),
+    category_id   BIGINT,
+    description   VARCHAR(255),
+    image_url     VARCHAR(255),
+    CONSTRAINT fk_cars_category FOREIGN KEY (category_id) REFERENCES car_categories (id)
+);
+
+CREATE TABLE users (
+    id                    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username              VARCHAR(255) NOT NULL,
+    password              VARCHAR(255) NOT NULL,
+    email                 VARCHAR(255) NOT NULL,
+    first_name            VARCHAR(255),
+    last_name             VARCHAR(255),
+    phone                 VARCHAR(255),
+    card_holder_name      VARCHAR(255),
+    card_last4            VARCHAR(4),
+    card_expiry           VARCHAR(7),
+    driver_license_series VARCHAR(4),
+    driver_license_number VARCHAR(6),
+    role                  VARCHAR(255) NOT NULL,
+    created_at            TIMESTAMP(6),
+    updated_at            TIMESTAMP(6),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE rentals (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    car_id           BIGINT,
+    user_id          BIGINT,
+    start_date       DATE,
+    end_date         DATE,
+    total_price      NUMERIC(38, 2),
+    status           VARCHAR(255),
+    deposit_paid     BOOLEAN,
+    special_requests TEXT,
+    created_at       TIMESTAMP(6),
+    CONSTRAINT fk_rentals_car FOREIGN KEY (car_id) REFERENCES cars (id),
+    CONSTRAINT fk_rentals_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE payments (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    rental_id      BIGINT,
+    amount         NUMERIC(38, 2),
+    payment_date   TIMESTAMP(6),
+    payment_method VARCHAR(255),
+    status         VARCHAR(255),
+    CONSTRAINT fk_payments_rental FOREIGN KEY (rental_id) REFERENCES rentals (id)
+);
+
+CREATE TABLE insurances (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    car_id            BIGINT         NOT NULL,
+    insurance_company VARCHAR(100)   NOT NULL,
+    policy_number     VARCHAR(50)    NOT NULL,
+    coverage_type     VARCHAR(100)   NOT NULL,
+    start_date        DATE           NOT NULL,
+    end_date          DATE           NOT NULL,
+    premium_amount    NUMERIC(38, 2) NOT NULL,
+    CONSTRAINT fk_insurances_car FOREIGN KEY (car_id) REFERENCES cars (id)
+);
@@ -0,0 +1,22 @@
+-- Индексы под запросы RentalRepository, CarRepository и InsuranceRepository.
+-- IF NOT EXISTS: часть индексов могла появиться раньше через ddl-auto=update.
+
+-- existsOverlapping / findAvailableBetween: поиск пересечения периодов по машине
+CREATE INDEX IF NOT EXISTS idx_rentals_car_period ON rentals (car_id, start_date, end_date);
+
+-- keyset-пагинация списка менеджера
+CREATE INDEX IF NOT EXISTS idx_rentals_created_id ON rentals (created_at, id);
+
+-- findByUserId, countByUserId, findListItemsByUserId
+CREATE INDEX IF NOT EXISTS idx_rentals_user_status ON rentals (user_id, status);
+
+-- countVisibleGroupedByStatus, countByStatusIgnoreCase
+CREATE INDEX IF NOT EXISTS idx_rentals_status ON rentals (status);
+
+-- findByStatus / countByStatus и фильтр статуса в каталоге
+CREATE INDEX IF NOT EXISTS idx_cars_status ON cars (status);
+CREATE INDEX IF NOT EXISTS idx_cars_category ON cars (category_id);
+
+CREATE INDEX IF NOT EXISTS idx_insurances_car ON insurances (car_id);
+CREATE INDEX IF NOT EXISTS idx_payments_rental ON payments (rental_id);
+CREATE INDEX IF NOT EXISTS idx_users_role ON users (role);
@@ -0,0 +1,29 @@
+-- Очередь платежей (transactional outbox): запрос оплаты записывается в той же транзакции,
+-- что и проверки аренды, а обращение к платёжному шлюзу выполняет PaymentOutboxWorker.
+-- idempotency_key — один ключ на депозит аренды: повторная отправка формы не создаёт вторую запись,
+-- а шлюз по нему не списывает деньги дважды.
+CREATE SEQUENCE IF NOT EXISTS payment_outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE payment_outbox (
+    id              BIGINT         NOT NULL DEFAULT nextval('payment_outbox_seq') PRIMARY KEY,
+    rental_id       BIGINT         NOT NULL,
+    amount          NUMERIC(38, 2) NOT NULL,
+    payment_method  VARCHAR(50)    NOT NULL,
+    idempotency_key VARCHAR(100)   NOT NULL,
+    status          VARCHAR(20)    NOT NULL,
+    attempts        INT            NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP(6)   NOT NULL,
+    last_error      VARCHAR(500),
+    created_at      TIMESTAMP(6)   NOT NULL,
+    processed_at    TIMESTAMP(6),
+    CONSTRAINT uk_payment_outbox_key UNIQUE (idempotency_key),
+    CONSTRAINT fk_payment_outbox_rental FOREIGN KEY (rental_id) REFERENCES rentals (id) ON DELETE CASCADE
+);
+
+-- выборка записей, которым пора в обработку
+CREATE INDEX idx_payment_outbox_due ON payment_outbox (status, next_attempt_at);
+
+-- платёж создаётся не больше одного раза на ключ, даже если обработка записи повторилась
+ALTER TABLE payments ADD COLUMN idempotency_key VARCHAR(100);
+ALTER TABLE payments ADD COLUMN transaction_id VARCHAR(100);
+ALTER TABLE payments ADD CONSTRAINT uk_payments_idempotency_key UNIQUE (idempotency_key);
@@ -0,0 +1,6 @@
+-- Стоимость аренды фиксируется при бронировании (PricingEngine) и больше не пересчитывается;
+-- pricing_version — версия правил тарифа, по которым она получена
+ALTER TABLE rentals ADD COLUMN pricing_version VARCHAR(20);
+
+-- аренды, оформленные до PricingEngine: цена дня × число дней
+UPDATE rentals SET pricing_version = 'legacy' WHERE total_price IS NOT NULL;
@@ -0,0 +1,4 @@
+-- Версии оптимистичной блокировки машин и аренд (@Version). На базах, принятых за версию 1,
+-- V1 не выполнялась, поэтому колонки добавляются здесь; IF NOT EXISTS — их мог создать ddl-auto=update.
+ALTER TABLE cars ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE rentals ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,4 @@
+-- Номер повторной отправки депозита после отказа шлюза. Шлюз возвращает по ключу первый результат,
+-- поэтому каждая отправка идёт к нему под своим ключом: 0 — DEPOSIT-{rentalId}, n — DEPOSIT-{rentalId}/n.
+-- idempotency_key остаётся ключом уникальности запроса и платежа.
+ALTER TABLE payment_outbox ADD COLUMN submission INT DEFAULT 0 NOT NULL;
@@ -0,0 +1,37 @@
+-- Идентификаторы из последовательностей с шагом 50 вместо IDENTITY: Hibernate берёт
+-- блок из 50 id за один nextval (pooled optimizer) и может пакетировать INSERT.
+-- Шаг должен совпадать с allocationSize в @SequenceGenerator сущностей.
+-- Последовательность стартует с max(id) + 50: pooled считает полученное значение верхней
+-- границей блока, поэтому первый выданный id будет max(id) + 1.
+-- Столбцы получают DEFAULT nextval(...), чтобы вставки без id (SQL-скрипты, INSERT ... SELECT)
+-- не пересекались с блоками Hibernate.
+
+CREATE SEQUENCE IF NOT EXISTS car_categories_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE car_categories_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM car_categories);
+ALTER TABLE car_categories ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE car_categories ALTER COLUMN id SET DEFAULT nextval('car_categories_seq');
+
+CREATE SEQUENCE IF NOT EXISTS cars_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE cars_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM cars);
+ALTER TABLE cars ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE cars ALTER COLUMN id SET DEFAULT nextval('cars_seq');
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM users);
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+
+CREATE SEQUENCE IF NOT EXISTS rentals_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE rentals_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM rentals);
+ALTER TABLE rentals ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE rentals ALTER COLUMN id SET DEFAULT nextval('rentals_seq');
+
+CREATE SEQUENCE IF NOT EXISTS payments_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE payments_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM payments);
+ALTER TABLE payments ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE payments ALTER COLUMN id SET DEFAULT nextval('payments_seq');
+
+CREATE SEQUENCE IF NOT EXISTS insurances_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE insurances_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM insurances);
+ALTER TABLE insurances ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE insurances ALTER COLUMN id SET DEFAULT nextval('insurances_seq');
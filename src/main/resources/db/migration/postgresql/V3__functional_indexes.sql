@@ -0,0 +1,11 @@
+-- Функциональные индексы PostgreSQL (в H2 выражения в индексах не поддерживаются).
+
+-- Поиск по подстроке LOWER(brand) LIKE '%...%' в findAvailableCars и каталоге:
+-- обычный btree не помогает при ведущем '%', поэтому триграммный GIN
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_cars_lower_brand_trgm ON cars USING gin (lower(brand) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_cars_lower_model_trgm ON cars USING gin (lower(model) gin_trgm_ops);
+
+-- Производные запросы *IgnoreCase сравнивают upper(status)
+CREATE INDEX IF NOT EXISTS idx_rentals_user_upper_status ON rentals (user_id, upper(status));
+CREATE INDEX IF NOT EXISTS idx_rentals_upper_status ON rentals (upper(status));
@@ -0,0 +1,43 @@
+-- Идентификаторы из последовательностей с шагом 50 вместо IDENTITY: Hibernate берёт
+-- блок из 50 id за один nextval (pooled optimizer) и может пакетировать INSERT.
+-- Шаг должен совпадать с allocationSize в @SequenceGenerator сущностей.
+-- Последовательность стартует с max(id) + 50: pooled считает полученное значение верхней
+-- границей блока, поэтому первый выданный id будет max(id) + 1.
+-- Столбцы получают DEFAULT nextval(...), чтобы вставки без id (SQL-скрипты, INSERT ... SELECT)
+-- не пересекались с блоками Hibernate.
+
+CREATE SEQUENCE IF NOT EXISTS car_categories_seq INCREMENT BY 50;
+SELECT setval('car_categories_seq', COALESCE((SELECT MAX(id) FROM car_categories), 0) + 50, false);
+ALTER TABLE car_categories ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE car_categories ALTER COLUMN id SET DEFAULT nextval('car_categories_seq');
+ALTER SEQUENCE car_categories_seq OWNED BY car_categories.id;
+
+CREATE SEQUENCE IF NOT EXISTS cars_seq INCREMENT BY 50;
+SELECT setval('cars_seq', COALESCE((SELECT MAX(id) FROM cars), 0) + 50, false);
+ALTER TABLE cars ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE cars ALTER COLUMN id SET DEFAULT nextval('cars_seq');
+ALTER SEQUENCE cars_seq OWNED BY cars.id;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+SELECT setval('users_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 50, false);
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+ALTER SEQUENCE users_seq OWNED BY users.id;
+
+CREATE SEQUENCE IF NOT EXISTS rentals_seq INCREMENT BY 50;
+SELECT setval('rentals_seq', COALESCE((SELECT MAX(id) FROM rentals), 0) + 50, false);
+ALTER TABLE rentals ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE rentals ALTER COLUMN id SET DEFAULT nextval('rentals_seq');
+ALTER SEQUENCE rentals_seq OWNED BY rentals.id;
+
+CREATE SEQUENCE IF NOT EXISTS payments_seq INCREMENT BY 50;
+SELECT setval('payments_seq', COALESCE((SELECT MAX(id) FROM payments), 0) + 50, false);
+ALTER TABLE payments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE payments ALTER COLUMN id SET DEFAULT nextval('payments_seq');
+ALTER SEQUENCE payments_seq OWNED BY payments.id;
+
+CREATE SEQUENCE IF NOT EXISTS insurances_seq INCREMENT BY 50;
+SELECT setval('insurances_seq', COALESCE((SELECT MAX(id) FROM insurances), 0) + 50, false);
+ALTER TABLE insurances ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE insurances ALTER COLUMN id SET DEFAULT nextval('insurances_seq');
+ALTER SEQUENCE insurances_seq OWNED BY insurances.id;
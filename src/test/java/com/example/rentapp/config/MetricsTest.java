@@ -0,0 +1,111 @@
+package com.example.rentapp.config;
+
+import com.example.rentapp.entity.User;
+import com.example.rentapp.repository.UserRepository;
+import com.example.rentapp.service.CarService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrlPattern;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// статистика Hibernate включена только в prod, здесь — как там
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricsTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private CarService carService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Test
+	void serviceAndRepositoryCallsAreTimed() {
+		carService.getTotalCars();
+		carService.findById(-1L);
+
+		assertThat(meterRegistry.find(MethodMetricsAspect.SERVICE_TIMER)
+				.tags("class", "CarService", "method", "getTotalCars", "exception", "none")
+				.timer())
+				.isNotNull()
+				.satisfies(timer -> assertThat(timer.count()).isPositive());
+		assertThat(meterRegistry.find(MethodMetricsAspect.REPOSITORY_TIMER)
+				.tags("class", "CarRepository", "method", "findWithCategoryById")
+				.timer())
+				.isNotNull();
+	}
+
+	@Test
+	void sqlStatementsAreCountedPerRequest() throws Exception {
+		mockMvc.perform(get("/cars").with(user("client").roles("CLIENT")))
+				.andExpect(status().isOk());
+
+		assertThat(meterRegistry.find(SqlStatementMetricsFilter.METRIC).tags("method", "GET", "uri", "/cars").summary())
+				.isNotNull()
+				.satisfies(summary -> assertThat(summary.max()).isPositive());
+	}
+
+	@Test
+	void prometheusEndpointExposesHibernateAndPoolMetrics() throws Exception {
+		mockMvc.perform(get("/cars").with(user("client").roles("CLIENT")))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(get("/actuator/prometheus").with(user("admin").roles("ADMIN")))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("app_service_seconds_bucket")))
+				.andExpect(content().string(containsString("http_server_requests_sql_bucket")))
+				.andExpect(content().string(containsString("hibernate_statements_total")))
+				.andExpect(content().string(containsString("hikaricp_connections_active")));
+		mockMvc.perform(get("/actuator/prometheus").with(user("client").roles("CLIENT")))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	void httpBasicIsAcceptedOnlyForActuator() throws Exception {
+		User scraper = new User();
+		scraper.setUsername("metrics-scraper");
+		scraper.setPassword(passwordEncoder.encode("scrape-secret"));
+		scraper.setEmail("metrics-scraper@rentapp.com");
+		scraper.setRole("ADMIN");
+		scraper = userRepository.save(scraper);
+		try {
+			mockMvc.perform(get("/actuator/prometheus").with(httpBasic("metrics-scraper", "scrape-secret")))
+					.andExpect(status().isOk())
+					.andExpect(header().doesNotExist("Set-Cookie"));
+			mockMvc.perform(get("/actuator/prometheus"))
+					.andExpect(status().isUnauthorized());
+			// страницы приложения заголовок Authorization не принимают — только форма входа
+			mockMvc.perform(get("/cars").with(httpBasic("metrics-scraper", "scrape-secret")))
+					.andExpect(status().is3xxRedirection())
+					.andExpect(redirectedUrlPattern("**/login"));
+		} finally {
+			userRepository.deleteById(scraper.getId());
+		}
+	}
+}
@@ -0,0 +1,214 @@
+package com.example.rentapp.controller;
+
+import com.example.rentapp.entity.Car;
+import com.example.rentapp.entity.CarCategory;
+import com.example.rentapp.entity.Insurance;
+import com.example.rentapp.entity.Rental;
+import com.example.rentapp.entity.User;
+import com.example.rentapp.repository.CarCategoryRepository;
+import com.example.rentapp.repository.CarRepository;
+import com.example.rentapp.repository.InsuranceRepository;
+import com.example.rentapp.repository.RentalRepository;
+import com.example.rentapp.repository.UserRepository;
+import com.example.rentapp.security.CustomUserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+/**
+ * Страницы рендерятся без открытой сессии Hibernate (open-in-view=false): любая ленивая загрузка
+ * в шаблоне заканчивается LazyInitializationException, и запрос в тесте падает.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PageRenderingTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	@Autowired
+	private CarCategoryRepository categoryRepository;
+
+	@Autowired
+	private CarRepository carRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RentalRepository rentalRepository;
+
+	@Autowired
+	private InsuranceRepository insuranceRepository;
+
+	private CarCategory category;
+	private Car car;
+	private User client;
+	private User admin;
+	private Rental rental;
+	private Insurance insurance;
+
+	@BeforeEach
+	void setUp() {
+		category = new CarCategory();
+		category.setName("Render-Sedan");
+		category = categoryRepository.save(category);
+
+		car = new Car();
+		car.setBrand("Render");
+		car.setModel("Model");
+		car.setYear(2023);
+		car.setPricePerDay(new BigDecimal("40.00"));
+		car.setCategory(category);
+		car = carRepository.save(car);
+
+		client = newUser("render-client", "CLIENT");
+		client.setDriverLicenseSeries("1234");
+		client.setDriverLicenseNumber("567890");
+		client.setCardLast4("4242");
+		client.setCardExpiry("12/30");
+		client = userRepository.save(client);
+		admin = userRepository.save(newUser("render-admin", "ADMIN"));
+
+		rental = new Rental();
+		rental.setCar(car);
+		rental.setUser(client);
+		rental.setStartDate(LocalDate.now().plusDays(1));
+		rental.setEndDate(LocalDate.now().plusDays(3));
+		rental.setStatus("PENDING");
+		rental.setDepositPaid(false);
+		rental = rentalRepository.save(rental);
+
+		insurance = new Insurance();
+		insurance.setCar(car);
+		insurance.setInsuranceCompany("Render Insurance");
+		insurance.setPolicyNumber("RND-1");
+		insurance.setCoverageType("КАСКО");
+		insurance.setStartDate(LocalDate.now());
+		insurance.setEndDate(LocalDate.now().plusYears(1));
+		insurance.setPremiumAmount(new BigDecimal("50000.00"));
+		insurance = insuranceRepository.save(insurance);
+	}
+
+	// база H2 общая для всех тестовых контекстов: удаляются только строки, созданные этим тестом
+	@AfterEach
+	void tearDown() {
+		insuranceRepository.deleteAll(insuranceRepository.findByCarId(car.getId()));
+		rentalRepository.deleteAll(rentalRepository.findByCarId(car.getId()));
+		carRepository.deleteById(car.getId());
+		categoryRepository.deleteById(category.getId());
+		userRepository.deleteAll(List.of(client, admin));
+	}
+
+	@Test
+	void openSessionInViewIsDisabled() {
+		assertThat(applicationContext.getBeansOfType(OpenEntityManagerInViewInterceptor.class)).isEmpty();
+	}
+
+	@Test
+	void clientPagesRenderWithoutLazyLoading() throws Exception {
+		RequestPostProcessor asClient = as(client);
+
+		mockMvc.perform(get("/profile").with(asClient))
+				.andExpect(status().isOk())
+				.andExpect(view().name("shared/profile"));
+		mockMvc.perform(get("/rentals").with(asClient))
+				.andExpect(status().isOk())
+				.andExpect(view().name("rentals/list"));
+		mockMvc.perform(get("/rentals/new").param("carId", car.getId().toString()).with(asClient))
+				.andExpect(status().isOk())
+				.andExpect(view().name("rentals/create"));
+		mockMvc.perform(get("/rentals/{id}/deposit", rental.getId()).with(asClient))
+				.andExpect(status().isOk())
+				.andExpect(view().name("rentals/deposit"));
+		mockMvc.perform(get("/dashboard").with(asClient))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void catalogPagesRenderWithoutLazyLoading() throws Exception {
+		RequestPostProcessor asClient = as(client);
+
+		mockMvc.perform(get("/").with(asClient))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/cars").with(asClient))
+				.andExpect(status().isOk())
+				.andExpect(view().name("cars/list"));
+		mockMvc.perform(get("/cars/available")
+						.param("startDate", LocalDate.now().plusDays(10).toString())
+						.param("endDate", LocalDate.now().plusDays(12).toString())
+						.with(asClient))
+				.andExpect(status().isOk())
+				.andExpect(view().name("cars/list"));
+		mockMvc.perform(get("/cars/{id}", car.getId()).with(asClient))
+				.andExpect(status().isOk())
+				.andExpect(view().name("cars/view"));
+	}
+
+	@Test
+	void staffPagesRenderWithoutLazyLoading() throws Exception {
+		RequestPostProcessor asAdmin = as(admin);
+
+		mockMvc.perform(get("/rentals").with(asAdmin))
+				.andExpect(status().isOk())
+				.andExpect(view().name("rentals/list"));
+		mockMvc.perform(get("/rentals").param("cursor", "not-a-cursor").with(asAdmin))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/cars/{id}/edit", car.getId()).with(asAdmin))
+				.andExpect(status().isOk())
+				.andExpect(view().name("cars/form"));
+		mockMvc.perform(get("/insurance").with(asAdmin))
+				.andExpect(status().isOk())
+				.andExpect(view().name("insurance/list"));
+		mockMvc.perform(get("/insurance/{id}/edit", insurance.getId()).with(asAdmin))
+				.andExpect(status().isOk())
+				.andExpect(view().name("insurance/form"));
+		mockMvc.perform(get("/insurance/new").param("carId", car.getId().toString()).with(asAdmin))
+				.andExpect(status().isOk())
+				.andExpect(view().name("insurance/form"));
+		mockMvc.perform(get("/insurance/template").param("carId", car.getId().toString()).with(asAdmin))
+				.andExpect(status().isOk())
+				.andExpect(view().name("insurance/form"));
+		mockMvc.perform(get("/admin/users").with(asAdmin))
+				.andExpect(status().isOk());
+		mockMvc.perform(get("/profile").with(asAdmin))
+				.andExpect(status().isOk());
+	}
+
+	private static RequestPostProcessor as(User account) {
+		return user(new CustomUserDetails(account.getId(), account.getUsername(), account.getPassword(), account.getRole()));
+	}
+
+	private static User newUser(String username, String role) {
+		User user = new User();
+		user.setUsername(username);
+		user.setPassword("$2a$10$render");
+		user.setEmail(username + "@rentapp.com");
+		user.setFirstName(username);
+		user.setLastName("Render");
+		user.setRole(role);
+		return user;
+	}
+}
@@ -0,0 +1,202 @@
+package com.example.rentapp.controller;
+
+import com.example.rentapp.config.CacheConfig;
+import com.example.rentapp.entity.Car;
+import com.example.rentapp.entity.CarCategory;
+import com.example.rentapp.entity.Insurance;
+import com.example.rentapp.entity.Rental;
+import com.example.rentapp.entity.User;
+import com.example.rentapp.repository.CarCategoryRepository;
+import com.example.rentapp.repository.CarRepository;
+import com.example.rentapp.repository.InsuranceRepository;
+import com.example.rentapp.repository.RentalRepository;
+import com.example.rentapp.repository.UserRepository;
+import com.example.rentapp.security.CustomUserDetails;
+import com.example.rentapp.service.DashboardSnapshotCache;
+import com.example.rentapp.support.MaxQueries;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Бюджет SQL-выражений на страницу при холодных кэшах. Данных несколько строк каждого вида,
+ * поэтому загрузка связи в цикле (N+1) выходит за бюджет, а не прячется за одной строкой.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetTest {
+
+	private static final int ROWS = 5;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private DashboardSnapshotCache dashboardSnapshotCache;
+
+	@Autowired
+	private CarCategoryRepository categoryRepository;
+
+	@Autowired
+	private CarRepository carRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RentalRepository rentalRepository;
+
+	@Autowired
+	private InsuranceRepository insuranceRepository;
+
+	private final List<CarCategory> categories = new ArrayList<>();
+	private final List<Car> cars = new ArrayList<>();
+	private User client;
+	private User admin;
+
+	@BeforeEach
+	void setUp() {
+		client = userRepository.save(newUser("budget-client", "CLIENT"));
+		admin = userRepository.save(newUser("budget-admin", "ADMIN"));
+
+		for (int i = 0; i < ROWS; i++) {
+			CarCategory category = new CarCategory();
+			category.setName("Budget-" + i);
+			category = categoryRepository.save(category);
+			categories.add(category);
+
+			Car car = new Car();
+			car.setBrand("Budget");
+			car.setModel("Model " + i);
+			car.setYear(2023);
+			car.setPricePerDay(new BigDecimal("40.00"));
+			car.setCategory(category);
+			cars.add(carRepository.save(car));
+		}
+
+		for (Car car : cars) {
+			Rental rental = new Rental();
+			rental.setCar(car);
+			rental.setUser(client);
+			rental.setStartDate(LocalDate.now().plusDays(1));
+			rental.setEndDate(LocalDate.now().plusDays(3));
+			rental.setTotalPrice(new BigDecimal("80.00"));
+			rental.setStatus("PENDING");
+			rental.setDepositPaid(false);
+			rentalRepository.save(rental);
+
+			Insurance insurance = new Insurance();
+			insurance.setCar(car);
+			insurance.setInsuranceCompany("Budget Insurance");
+			insurance.setPolicyNumber("BGT-" + car.getId());
+			insurance.setCoverageType("ОСАГО");
+			insurance.setStartDate(LocalDate.now());
+			insurance.setEndDate(LocalDate.now().plusYears(1));
+			insurance.setPremiumAmount(new BigDecimal("10000.00"));
+			insuranceRepository.save(insurance);
+		}
+
+		CacheConfig.clearAll(cacheManager);
+		dashboardSnapshotCache.invalidate();
+	}
+
+	// база H2 общая для всех тестовых контекстов: удаляются только строки, созданные этим тестом
+	@AfterEach
+	void tearDown() {
+		for (Car car : cars) {
+			insuranceRepository.deleteAll(insuranceRepository.findByCarId(car.getId()));
+			rentalRepository.deleteAll(rentalRepository.findByCarId(car.getId()));
+		}
+		carRepository.deleteAll(cars);
+		categoryRepository.deleteAll(categories);
+		userRepository.deleteAll(List.of(client, admin));
+		cars.clear();
+		categories.clear();
+	}
+
+	@Test
+	@MaxQueries(2)
+	void carCatalog() throws Exception {
+		mockMvc.perform(get("/cars").with(as(client)))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	@MaxQueries(2)
+	void availableCars() throws Exception {
+		mockMvc.perform(get("/cars/available").with(as(client)))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	@MaxQueries(2)
+	void clientRentals() throws Exception {
+		mockMvc.perform(get("/rentals").with(as(client)))
+				.andExpect(status().isOk());
+	}
+
+	// + счётчики по статусам для фильтра
+	@Test
+	@MaxQueries(3)
+	void staffRentals() throws Exception {
+		mockMvc.perform(get("/rentals").with(as(admin)))
+				.andExpect(status().isOk());
+	}
+
+	// счётчики статистики — отдельные агрегаты, по одному на показатель
+	@Test
+	@MaxQueries(9)
+	void dashboard() throws Exception {
+		mockMvc.perform(get("/dashboard").with(as(admin)))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	@MaxQueries(2)
+	void insuranceList() throws Exception {
+		mockMvc.perform(get("/insurance").with(as(admin)))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	@MaxQueries(2)
+	void profile() throws Exception {
+		mockMvc.perform(get("/profile").with(as(client)))
+				.andExpect(status().isOk());
+	}
+
+	private static RequestPostProcessor as(User account) {
+		return user(new CustomUserDetails(account.getId(), account.getUsername(), account.getPassword(), account.getRole()));
+	}
+
+	private static User newUser(String username, String role) {
+		User user = new User();
+		user.setUsername(username);
+		user.setPassword("$2a$10$budget");
+		user.setEmail(username + "@rentapp.com");
+		user.setFirstName(username);
+		user.setLastName("Budget");
+		user.setRole(role);
+		return user;
+	}
+}
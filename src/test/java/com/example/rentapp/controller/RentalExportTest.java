@@ -0,0 +1,190 @@
+package com.example.rentapp.controller;
+
+import com.example.rentapp.entity.Car;
+import com.example.rentapp.entity.Payment;
+import com.example.rentapp.entity.Rental;
+import com.example.rentapp.entity.User;
+import com.example.rentapp.repository.CarRepository;
+import com.example.rentapp.repository.PaymentRepository;
+import com.example.rentapp.repository.RentalRepository;
+import com.example.rentapp.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RentalExportTest {
+
+	private static final LocalDate JANUARY = LocalDate.of(2026, 1, 15);
+	private static final LocalDate MARCH = LocalDate.of(2026, 3, 15);
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private CarRepository carRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RentalRepository rentalRepository;
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	private User client;
+	private Car car;
+	private Rental paid;
+	private Rental pending;
+
+	@BeforeEach
+	void setUp() {
+		client = new User();
+		client.setUsername("export-client");
+		client.setPassword("$2a$10$export");
+		client.setEmail("export@rentapp.com");
+		client = userRepository.save(client);
+
+		car = new Car();
+		car.setBrand("Export");
+		car.setModel("=SUM(1,2)");
+		car.setYear(2023);
+		car.setPricePerDay(new BigDecimal("40.00"));
+		car = carRepository.save(car);
+
+		paid = rentalRepository.save(rental(car, client, "CONFIRMED", JANUARY));
+		pending = rentalRepository.save(rental(car, client, "PENDING", MARCH));
+
+		paymentRepository.save(payment(paid, "4000.00", "DEPOSIT"));
+		paymentRepository.save(payment(paid, "80.00", "CARD"));
+	}
+
+	// база H2 общая для всех тестовых контекстов: удаляются только строки, созданные этим тестом
+	@AfterEach
+	void tearDown() {
+		for (Rental created : List.of(paid, pending)) {
+			paymentRepository.deleteAll(paymentRepository.findByRentalId(created.getId()));
+		}
+		rentalRepository.deleteAll(List.of(paid, pending));
+		carRepository.deleteById(car.getId());
+		userRepository.deleteById(client.getId());
+	}
+
+	@Test
+	void csvHasRowPerPaymentAndEscapesText() throws Exception {
+		String csv = mockMvc.perform(get("/admin/export/rentals")
+						.param("from", "2026-01-01")
+						.param("to", "2026-03-31")
+						.with(user("admin").roles("ADMIN")))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+				.andExpect(header().string("Content-Disposition", "attachment; filename=\"rentals.csv\""))
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+		String[] lines = csv.split("\r\n");
+		assertThat(lines).hasSize(4);
+		assertThat(lines[0]).startsWith("rental_id,created_at,start_date,");
+		// две строки по платежам оплаченной аренды и одна без платежа, по дате бронирования
+		assertThat(lines[1]).startsWith(paid.getId() + ",2026-01-15T10:00:00,").contains(",CONFIRMED,80.00,true,")
+				.contains(",Export,\"'=SUM(1,2)\",").contains(",4000.00,DEPOSIT,");
+		assertThat(lines[2]).contains(",80.00,CARD,");
+		assertThat(lines[3]).startsWith(pending.getId() + ",").endsWith(",,,,,,");
+	}
+
+	@Test
+	void ndjsonWithFiltersAndGzip() throws Exception {
+		byte[] body = mockMvc.perform(get("/admin/export/rentals")
+						.param("format", "ndjson")
+						.param("from", "2026-03-01")
+						.param("to", "2026-03-31")
+						.param("status", "pending", "CANCELLED")
+						.param("gzip", "true")
+						.with(user("admin").roles("ADMIN")))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Type", "application/gzip"))
+				.andExpect(header().string("Content-Disposition", "attachment; filename=\"rentals.ndjson.gz\""))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		String ndjson;
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+			ndjson = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		List<JsonNode> rows = new ArrayList<>();
+		for (String line : ndjson.split("\n")) {
+			rows.add(objectMapper.readTree(line));
+		}
+		assertThat(ndjson).endsWith("\n");
+		assertThat(rows).singleElement().satisfies(row -> {
+			assertThat(row.get("rental_id").asLong()).isEqualTo(pending.getId());
+			assertThat(row.get("status").asText()).isEqualTo("PENDING");
+			assertThat(row.get("total_price").decimalValue()).isEqualByComparingTo("80.00");
+			assertThat(row.get("deposit_paid").isBoolean()).isTrue();
+			assertThat(row.get("created_at").asText()).isEqualTo("2026-03-15T10:00:00");
+			assertThat(row.get("payment_id").isNull()).isTrue();
+		});
+	}
+
+	@Test
+	void invalidParametersAndNonAdminsAreRejected() throws Exception {
+		mockMvc.perform(get("/admin/export/rentals").param("format", "xlsx").with(user("admin").roles("ADMIN")))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/admin/export/rentals")
+						.param("from", "2026-03-01")
+						.param("to", "2026-02-01")
+						.with(user("admin").roles("ADMIN")))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/admin/export/rentals").with(user("manager").roles("MANAGER")))
+				.andExpect(status().isForbidden());
+	}
+
+	private static Rental rental(Car car, User client, String status, LocalDate bookedOn) {
+		Rental rental = new Rental();
+		rental.setCar(car);
+		rental.setUser(client);
+		rental.setStartDate(bookedOn.plusDays(1));
+		rental.setEndDate(bookedOn.plusDays(3));
+		rental.setTotalPrice(new BigDecimal("80.00"));
+		rental.setStatus(status);
+		rental.setDepositPaid("CONFIRMED".equals(status));
+		rental.setCreatedAt(LocalDateTime.of(bookedOn, LocalTime.of(10, 0)));
+		return rental;
+	}
+
+	private static Payment payment(Rental rental, String amount, String method) {
+		Payment payment = new Payment();
+		payment.setRental(rental);
+		payment.setAmount(new BigDecimal(amount));
+		payment.setPaymentMethod(method);
+		payment.setStatus("COMPLETED");
+		return payment;
+	}
+}
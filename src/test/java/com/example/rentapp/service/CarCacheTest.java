@@ -0,0 +1,73 @@
+package com.example.rentapp.service;
+
+import com.example.rentapp.dto.CarView;
+import com.example.rentapp.entity.Car;
+import com.example.rentapp.repository.CarRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Кэш cars хранит неизменяемое представление; смена статуса — один UPDATE, после которого
+ * представление, выборки каталога и счётчики панели перечитываются
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CarCacheTest {
+
+	@Autowired
+	private CarService carService;
+
+	@Autowired
+	private StatisticsService statisticsService;
+
+	@Autowired
+	private CarRepository carRepository;
+
+	private Car car;
+
+	@BeforeEach
+	void setUp() {
+		car = new Car();
+		car.setBrand("Cache");
+		car.setModel("Model");
+		car.setYear(2023);
+		car.setPricePerDay(new BigDecimal("40.00"));
+		car = carService.save(car);
+	}
+
+	@AfterEach
+	void tearDown() {
+		carService.deleteById(car.getId());
+	}
+
+	@Test
+	void statusUpdateRefreshesViewCatalogAndDashboard() {
+		CarView cached = carService.findViewById(car.getId()).orElseThrow();
+		assertThat(carService.findViewById(car.getId()).orElseThrow()).isSameAs(cached);
+		long available = (Long) statisticsService.getDashboardStatistics(null).get("availableCars");
+		long version = carRepository.findById(car.getId()).orElseThrow().getVersion();
+		assertThat(availableIds()).contains(car.getId());
+
+		carService.updateCarStatus(car.getId(), "RENTED");
+
+		assertThat(cached.getStatus()).isEqualTo("AVAILABLE");
+		assertThat(carService.findViewById(car.getId()).orElseThrow().getStatus()).isEqualTo("RENTED");
+		assertThat(carService.getAvailableCarsCount()).isEqualTo(available - 1);
+		assertThat(statisticsService.getDashboardStatistics(null).get("availableCars")).isEqualTo(available - 1);
+		assertThat(carRepository.findById(car.getId()).orElseThrow().getVersion()).isEqualTo(version + 1);
+		assertThat(availableIds()).doesNotContain(car.getId());
+	}
+
+	private List<Long> availableIds() {
+		return carService.findAvailableCars(0, CarService.MAX_PAGE_SIZE).map(CarView::getId).getContent();
+	}
+}
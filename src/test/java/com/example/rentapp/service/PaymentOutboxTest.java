@@ -0,0 +1,311 @@
+package com.example.rentapp.service;
+
+import com.example.rentapp.entity.Car;
+import com.example.rentapp.entity.PaymentOutbox;
+import com.example.rentapp.entity.Rental;
+import com.example.rentapp.entity.User;
+import com.example.rentapp.repository.CarRepository;
+import com.example.rentapp.repository.PaymentOutboxRepository;
+import com.example.rentapp.repository.PaymentRepository;
+import com.example.rentapp.repository.RentalRepository;
+import com.example.rentapp.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+		"app.payments.polling-enabled=true",
+		"app.payments.poll-interval-ms=100",
+		"app.payments.retry-delay-ms=50",
+		"app.payments.max-attempts=3"
+})
+@ActiveProfiles("test")
+class PaymentOutboxTest {
+
+	private static final BigDecimal DEPOSIT = new BigDecimal("5000.00");
+
+	@MockBean
+	private PaymentGateway paymentGateway;
+
+	@Autowired
+	private PaymentService paymentService;
+
+	@Autowired
+	private RentalService rentalService;
+
+	@Autowired
+	private PaymentOutboxWorker worker;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private PaymentOutboxRepository outboxRepository;
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	@Autowired
+	private RentalRepository rentalRepository;
+
+	@Autowired
+	private CarRepository carRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private User client;
+	private Car car;
+	private Rental rental;
+
+	@BeforeEach
+	void setUp() {
+		client = new User();
+		client.setUsername("outbox-client");
+		client.setPassword("$2a$10$outbox");
+		client.setEmail("outbox@rentapp.com");
+		client = userRepository.save(client);
+
+		car = new Car();
+		car.setBrand("Outbox");
+		car.setModel("Model");
+		car.setYear(2023);
+		car.setPricePerDay(new BigDecimal("40.00"));
+		car = carRepository.save(car);
+
+		rental = newRental();
+	}
+
+	// база H2 общая для всех тестовых контекстов: удаляются только строки, созданные этим тестом
+	@AfterEach
+	void tearDown() {
+		for (Rental created : rentalRepository.findByCarId(car.getId())) {
+			paymentRepository.deleteAll(paymentRepository.findByRentalId(created.getId()));
+			outboxRepository.deleteAll(outboxRepository.findByRentalId(created.getId()));
+			rentalRepository.delete(created);
+		}
+		carRepository.deleteById(car.getId());
+		userRepository.deleteById(client.getId());
+	}
+
+	@Test
+	void transientGatewayFailureIsRetriedWithoutDuplicatePayment() throws Exception {
+		when(paymentGateway.charge(any()))
+				.thenThrow(new IllegalStateException("timeout"))
+				.thenReturn(PaymentGateway.Result.approved("T-1"));
+
+		PaymentOutbox entry = paymentService.requestDeposit(rental.getId(), DEPOSIT);
+		awaitStatus(entry.getId(), PaymentOutbox.DONE);
+
+		ArgumentCaptor<PaymentGateway.Charge> charges = ArgumentCaptor.forClass(PaymentGateway.Charge.class);
+		verify(paymentGateway, times(2)).charge(charges.capture());
+		assertThat(charges.getAllValues())
+				.extracting(PaymentGateway.Charge::idempotencyKey)
+				.containsOnly(PaymentService.depositKey(rental.getId()));
+
+		assertThat(outboxRepository.findById(entry.getId()).orElseThrow().getAttempts()).isEqualTo(2);
+		assertThat(paymentRepository.findByRentalId(rental.getId()))
+				.singleElement()
+				.satisfies(payment -> assertThat(payment.getTransactionId()).isEqualTo("T-1"));
+		assertThat(rentalRepository.findById(rental.getId()).orElseThrow().getDepositPaid()).isTrue();
+	}
+
+	@Test
+	void repeatedRequestsAndReprocessingKeepSinglePayment() throws Exception {
+		when(paymentGateway.charge(any())).thenReturn(PaymentGateway.Result.approved("T-1"));
+
+		PaymentOutbox first = paymentService.requestDeposit(rental.getId(), DEPOSIT);
+		PaymentOutbox second = paymentService.requestDeposit(rental.getId(), DEPOSIT);
+		assertThat(second.getId()).isEqualTo(first.getId());
+		awaitStatus(first.getId(), PaymentOutbox.DONE);
+
+		// повторная отправка формы, повторная доставка события и повтор сохранения результата
+		paymentService.requestDeposit(rental.getId(), DEPOSIT);
+		worker.process(first.getId());
+		paymentService.completeDeposit(first.getId(), "T-2");
+
+		verify(paymentGateway, times(1)).charge(any());
+		assertThat(outboxRepository.findByRentalId(rental.getId())).hasSize(1);
+		assertThat(paymentRepository.findByRentalId(rental.getId())).hasSize(1);
+	}
+
+	@Test
+	void declinedChargeFailsWithoutPayment() throws Exception {
+		when(paymentGateway.charge(any())).thenReturn(PaymentGateway.Result.declined("Недостаточно средств"));
+
+		PaymentOutbox entry = paymentService.requestDeposit(rental.getId(), DEPOSIT);
+		awaitStatus(entry.getId(), PaymentOutbox.FAILED);
+
+		assertThat(outboxRepository.findById(entry.getId()).orElseThrow().getLastError()).isEqualTo("Недостаточно средств");
+		assertThat(paymentRepository.findByRentalId(rental.getId())).isEmpty();
+		assertThat(rentalRepository.findById(rental.getId()).orElseThrow().getDepositPaid()).isFalse();
+		assertThat(paymentService.isDepositInProgress(rental.getId())).isFalse();
+	}
+
+	@Test
+	void resubmissionAfterDeclineUsesNewGatewayKey() throws Exception {
+		when(paymentGateway.charge(any()))
+				.thenReturn(PaymentGateway.Result.declined("Недостаточно средств"))
+				.thenReturn(PaymentGateway.Result.approved("T-2"));
+
+		PaymentOutbox entry = paymentService.requestDeposit(rental.getId(), DEPOSIT);
+		awaitStatus(entry.getId(), PaymentOutbox.FAILED);
+		paymentService.requestDeposit(rental.getId(), DEPOSIT);
+		awaitStatus(entry.getId(), PaymentOutbox.DONE);
+
+		ArgumentCaptor<PaymentGateway.Charge> charges = ArgumentCaptor.forClass(PaymentGateway.Charge.class);
+		verify(paymentGateway, times(2)).charge(charges.capture());
+		String key = PaymentService.depositKey(rental.getId());
+		assertThat(charges.getAllValues())
+				.extracting(PaymentGateway.Charge::idempotencyKey)
+				.containsExactly(key, key + "/1");
+		assertThat(paymentRepository.findByRentalId(rental.getId()))
+				.singleElement()
+				.satisfies(payment -> assertThat(payment.getIdempotencyKey()).isEqualTo(key));
+	}
+
+	@Test
+	void cancellingRentalCancelsQueuedDepositWithoutCharge() {
+		PaymentOutbox entry = transactionTemplate.execute(status -> {
+			PaymentOutbox requested = paymentService.requestDeposit(rental.getId(), DEPOSIT);
+			rentalService.updateRentalStatus(rental.getId(), "CANCELLED");
+			return requested;
+		});
+		worker.process(entry.getId());
+
+		verify(paymentGateway, never()).charge(any());
+		assertThat(outboxRepository.findById(entry.getId()).orElseThrow().getStatus()).isEqualTo(PaymentOutbox.CANCELLED);
+		assertThat(paymentService.isDepositInProgress(rental.getId())).isFalse();
+	}
+
+	@Test
+	void approvalAfterCancellationIsNotRecordedAsDeposit() {
+		PaymentOutbox entry = outboxRepository.save(processing(1, LocalDateTime.now().plusMinutes(1)));
+		rentalService.updateRentalStatus(rental.getId(), "CANCELLED");
+
+		paymentService.completeDeposit(entry.getId(), "T-LATE");
+
+		PaymentOutbox saved = outboxRepository.findById(entry.getId()).orElseThrow();
+		assertThat(saved.getStatus()).isEqualTo(PaymentOutbox.CANCELLED);
+		assertThat(saved.getLastError()).contains("T-LATE");
+		assertThat(paymentRepository.findByRentalId(rental.getId())).isEmpty();
+		assertThat(rentalRepository.findById(rental.getId()).orElseThrow().getDepositPaid()).isFalse();
+	}
+
+	@Test
+	void expiredLeaseWithExhaustedAttemptsIsNotReclaimed() {
+		PaymentOutbox entry = outboxRepository.save(processing(3, LocalDateTime.now().minusMinutes(1)));
+
+		worker.process(entry.getId());
+
+		verify(paymentGateway, never()).charge(any());
+		PaymentOutbox saved = outboxRepository.findById(entry.getId()).orElseThrow();
+		assertThat(saved.getStatus()).isEqualTo(PaymentOutbox.FAILED);
+		assertThat(saved.getAttempts()).isEqualTo(3);
+	}
+
+	@Test
+	void concurrentCancellationAndCompletionNeitherDeadlockNorLoseCharge() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (int i = 0; i < 30; i++) {
+				Rental target = newRental();
+				PaymentOutbox entry = outboxRepository.save(processing(target, 1, LocalDateTime.now().plusMinutes(1)));
+				String transactionId = "T-RACE-" + i;
+				CyclicBarrier start = new CyclicBarrier(2);
+
+				Future<?> cancel = executor.submit(() -> {
+					start.await();
+					rentalService.updateRentalStatus(target.getId(), "CANCELLED");
+					return null;
+				});
+				Future<?> complete = executor.submit(() -> {
+					start.await();
+					paymentService.completeDeposit(entry.getId(), transactionId);
+					return null;
+				});
+				cancel.get(30, TimeUnit.SECONDS);
+				complete.get(30, TimeUnit.SECONDS);
+
+				// либо депозит записан до отмены, либо отмена сохранила номер транзакции для возврата
+				PaymentOutbox saved = outboxRepository.findById(entry.getId()).orElseThrow();
+				boolean paid = paymentRepository.existsByIdempotencyKey(entry.getIdempotencyKey());
+				if (PaymentOutbox.DONE.equals(saved.getStatus())) {
+					assertThat(paid).isTrue();
+				} else {
+					assertThat(saved.getStatus()).isEqualTo(PaymentOutbox.CANCELLED);
+					assertThat(saved.getLastError()).contains(transactionId);
+					assertThat(paid).isFalse();
+				}
+				assertThat(rentalRepository.findById(target.getId()).orElseThrow().getStatus()).isEqualTo("CANCELLED");
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private Rental newRental() {
+		Rental created = new Rental();
+		created.setCar(car);
+		created.setUser(client);
+		created.setStartDate(LocalDate.now().plusDays(1));
+		created.setEndDate(LocalDate.now().plusDays(3));
+		created.setStatus("PENDING");
+		created.setDepositPaid(false);
+		return rentalRepository.save(created);
+	}
+
+	private PaymentOutbox processing(int attempts, LocalDateTime leaseUntil) {
+		return processing(rental, attempts, leaseUntil);
+	}
+
+	// запись, занятая обработчиком до leaseUntil после attempts попыток
+	private PaymentOutbox processing(Rental target, int attempts, LocalDateTime leaseUntil) {
+		PaymentOutbox entry = new PaymentOutbox();
+		entry.setRentalId(target.getId());
+		entry.setAmount(DEPOSIT);
+		entry.setPaymentMethod(PaymentService.DEPOSIT_METHOD);
+		entry.setIdempotencyKey(PaymentService.depositKey(target.getId()));
+		entry.setStatus(PaymentOutbox.PROCESSING);
+		entry.setAttempts(attempts);
+		entry.setNextAttemptAt(leaseUntil);
+		return entry;
+	}
+
+	private void awaitStatus(Long outboxId, String status) throws InterruptedException {
+		await(() -> outboxRepository.findById(outboxId)
+				.map(entry -> status.equals(entry.getStatus()))
+				.orElse(false));
+		assertThat(outboxRepository.findById(outboxId).orElseThrow().getStatus()).isEqualTo(status);
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+	}
+}
@@ -0,0 +1,214 @@
+package com.example.rentapp.service;
+
+import com.example.rentapp.dto.PriceQuote;
+import com.example.rentapp.entity.Car;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"app.pricing.weekend-multiplier=1.5",
+		"app.pricing.season-multiplier=2",
+		"app.pricing.seasons=06-01..08-31",
+		"app.pricing.long-rental-discounts=30:20,7:10"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PricingEngineTest {
+
+	// даты следующего года: календарь PricingEngine строится от текущей даты
+	private static final int YEAR = LocalDate.now().getYear() + 1;
+	// понедельник в начале марта — вне сезона
+	private static final LocalDate MONDAY = LocalDate.of(YEAR, 3, 1).with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+
+	@Autowired
+	private PricingEngine pricingEngine;
+
+	@Autowired
+	private CarService carService;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	private Car car;
+
+	@BeforeEach
+	void setUp() {
+		car = new Car();
+		car.setBrand("Pricing");
+		car.setModel("Model");
+		car.setYear(2023);
+		car.setPricePerDay(new BigDecimal("40.00"));
+		car = carService.save(car);
+	}
+
+	// база H2 общая для всех тестовых контекстов: удаляются только строки, созданные этим тестом
+	@AfterEach
+	void tearDown() {
+		carService.deleteById(car.getId());
+	}
+
+	@Test
+	void weekendSeasonAndDiscountAreApplied() {
+		PricingEngine.Tariff tariff = pricingEngine.findTariff(car.getId()).orElseThrow();
+
+		// пн–вс: 5 будних по 40 + 2 выходных по 60, от 7 дней скидка 10 %
+		PriceQuote week = pricingEngine.quote(tariff, MONDAY, MONDAY.plusDays(7));
+		assertThat(week.days()).isEqualTo(7);
+		assertThat(week.weekendDays()).isEqualTo(2);
+		assertThat(week.subtotal()).isEqualByComparingTo("320.00");
+		assertThat(week.discountPercent()).isEqualTo(10);
+		assertThat(week.total()).isEqualByComparingTo("288.00");
+
+		// 30 и 31 августа в сезоне (×2), 1 сентября уже нет; день недели зависит от года
+		LocalDate seasonEndStart = LocalDate.of(YEAR, 8, 30);
+		PriceQuote seasonEnd = pricingEngine.quote(tariff, seasonEndStart, seasonEndStart.plusDays(3));
+		assertThat(seasonEnd.seasonDays()).isEqualTo(2);
+		assertThat(seasonEnd.total()).isEqualByComparingTo(dailyRate(seasonEndStart)
+				.add(dailyRate(seasonEndStart.plusDays(1)))
+				.add(dailyRate(seasonEndStart.plusDays(2))));
+
+		// сб и вс в сезоне: 40 × 1,5 × 2
+		LocalDate julySaturday = LocalDate.of(YEAR, 7, 1).with(TemporalAdjusters.nextOrSame(DayOfWeek.SATURDAY));
+		PriceQuote seasonWeekend = pricingEngine.quote(tariff, julySaturday, julySaturday.plusDays(2));
+		assertThat(seasonWeekend.total()).isEqualByComparingTo("240.00");
+
+		// даты совпадают — оплачивается один день
+		assertThat(pricingEngine.totalMinor(tariff, MONDAY, MONDAY)).isEqualTo(4000);
+		assertThatThrownBy(() -> pricingEngine.totalMinor(tariff, MONDAY, MONDAY.minusDays(1)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void tooLongPeriodsAndDatesOutsideCalendarAreRejected() {
+		PricingEngine.Tariff tariff = pricingEngine.findTariff(car.getId()).orElseThrow();
+
+		assertThat(pricingEngine.totalMinor(tariff, MONDAY, MONDAY.plusDays(365))).isPositive();
+		assertThatThrownBy(() -> pricingEngine.totalMinor(tariff, MONDAY, MONDAY.plusDays(366)))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("365");
+		assertThatThrownBy(() -> pricingEngine.quote(tariff, MONDAY.plusYears(10), MONDAY.plusYears(10).plusDays(2)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> pricingEngine.checkPeriod(LocalDate.of(9999, 12, 29), LocalDate.of(9999, 12, 31)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void calendarMovesWithCurrentDate() {
+		PricingEngine.Tariff tariff = pricingEngine.findTariff(car.getId()).orElseThrow();
+		LocalDate farAhead = LocalDate.now().plusYears(4);
+		assertThatThrownBy(() -> pricingEngine.checkPeriod(farAhead, farAhead.plusDays(2)))
+				.isInstanceOf(IllegalArgumentException.class);
+
+		try {
+			pricingEngine.rebuildCalendar(LocalDate.now().plusYears(2));
+			assertThat(pricingEngine.quote(tariff, farAhead, farAhead.plusDays(2)).days()).isEqualTo(2);
+		} finally {
+			pricingEngine.rebuildCalendar();
+		}
+	}
+
+	@Test
+	void versionIsSha256OfRules() {
+		assertThat(pricingEngine.getVersion()).matches("[0-9a-f]{64}");
+	}
+
+	@Test
+	void tariffFollowsCarPrice() {
+		assertThat(pricingEngine.findTariff(car.getId()).orElseThrow().dailyMinor()).isEqualTo(4000);
+
+		car.setPricePerDay(new BigDecimal("55.50"));
+		carService.save(car);
+
+		assertThat(pricingEngine.findTariff(car.getId()).orElseThrow().dailyMinor()).isEqualTo(5550);
+	}
+
+	@Test
+	void quoteEndpoints() throws Exception {
+		mockMvc.perform(get("/api/pricing/quote")
+						.param("carId", car.getId().toString())
+						.param("startDate", MONDAY.toString())
+						.param("endDate", MONDAY.plusDays(7).toString())
+						.with(user("client")))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.total").value(288.0))
+				.andExpect(jsonPath("$.weekendDays").value(2));
+
+		LocalDate julySaturday = LocalDate.of(YEAR, 7, 1).with(TemporalAdjusters.nextOrSame(DayOfWeek.SATURDAY));
+		String body = batch(MONDAY, MONDAY.plusDays(7), julySaturday, julySaturday.plusDays(2));
+		mockMvc.perform(post("/api/pricing/quotes")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(body)
+						.with(user("client")))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(jsonPath("$[1].total").value(240.0));
+
+		// период до конца календаря не пересчитывается по дням, а отклоняется
+		mockMvc.perform(post("/api/pricing/quotes")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(batch(MONDAY, MONDAY.plusDays(7), MONDAY, LocalDate.of(9999, 12, 31)))
+						.with(user("client")))
+				.andExpect(status().isBadRequest());
+		// без CSRF-токена принимается только JSON, который чужая страница без CORS не отправит
+		mockMvc.perform(post("/api/pricing/quotes")
+						.contentType(MediaType.TEXT_PLAIN)
+						.content(body)
+						.with(user("client")))
+				.andExpect(status().isUnsupportedMediaType());
+
+		mockMvc.perform(get("/api/pricing/quote")
+						.param("carId", car.getId().toString())
+						.param("startDate", MONDAY.toString())
+						.param("endDate", MONDAY.minusDays(1).toString())
+						.with(user("client")))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/pricing/quote")
+						.param("carId", "-1")
+						.param("startDate", MONDAY.toString())
+						.param("endDate", MONDAY.plusDays(1).toString())
+						.with(user("client")))
+				.andExpect(status().isNotFound());
+	}
+
+	private String batch(LocalDate... dates) {
+		StringBuilder body = new StringBuilder("{\"carId\":").append(car.getId()).append(",\"ranges\":[");
+		for (int i = 0; i < dates.length; i += 2) {
+			body.append(i == 0 ? "" : ",")
+					.append("{\"startDate\":\"").append(dates[i])
+					.append("\",\"endDate\":\"").append(dates[i + 1]).append("\"}");
+		}
+		return body.append("]}").toString();
+	}
+
+	// цена дня по правилам теста: 40, выходные ×1,5, июнь–август ×2
+	private static BigDecimal dailyRate(LocalDate day) {
+		BigDecimal rate = new BigDecimal("40.00");
+		if (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+			rate = rate.multiply(new BigDecimal("1.5"));
+		}
+		if (day.getMonthValue() >= 6 && day.getMonthValue() <= 8) {
+			rate = rate.multiply(BigDecimal.valueOf(2));
+		}
+		return rate;
+	}
+}
@@ -0,0 +1,118 @@
+package com.example.rentapp.service;
+
+import com.example.rentapp.entity.Car;
+import com.example.rentapp.entity.Rental;
+import com.example.rentapp.entity.User;
+import com.example.rentapp.repository.CarRepository;
+import com.example.rentapp.repository.RentalRepository;
+import com.example.rentapp.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Цена аренды фиксируется при бронировании: смена статуса, депозит и новая цена автомобиля её не меняют
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RentalPricingTest {
+
+	@Autowired
+	private RentalService rentalService;
+
+	@Autowired
+	private CarService carService;
+
+	@Autowired
+	private PricingEngine pricingEngine;
+
+	@Autowired
+	private CarRepository carRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RentalRepository rentalRepository;
+
+	private Car car;
+	private User client;
+
+	@BeforeEach
+	void setUp() {
+		client = new User();
+		client.setUsername("pricing-client");
+		client.setPassword("$2a$10$pricing");
+		client.setEmail("pricing@rentapp.com");
+		client = userRepository.save(client);
+
+		car = new Car();
+		car.setBrand("Snapshot");
+		car.setModel("Model");
+		car.setYear(2023);
+		car.setPricePerDay(new BigDecimal("40.00"));
+		car = carService.save(car);
+	}
+
+	// база H2 общая для всех тестовых контекстов: удаляются только строки, созданные этим тестом
+	@AfterEach
+	void tearDown() {
+		rentalRepository.deleteAll(rentalRepository.findByCarId(car.getId()));
+		carService.deleteById(car.getId());
+		userRepository.deleteById(client.getId());
+	}
+
+	@Test
+	void bookedPriceSurvivesStatusChangesAndCarPriceChange() {
+		Rental rental = new Rental();
+		rental.setStartDate(LocalDate.now().plusDays(1));
+		rental.setEndDate(LocalDate.now().plusDays(4));
+		Rental booked = rentalService.createRental(car.getId(), client.getId(), rental);
+
+		assertThat(booked.getTotalPrice()).isEqualByComparingTo("120.00");
+		assertThat(booked.getPricingVersion()).isEqualTo(pricingEngine.getVersion());
+
+		car.setPricePerDay(new BigDecimal("99.00"));
+		carService.save(car);
+		rentalService.markDepositPaid(booked.getId());
+		rentalService.updateRentalStatus(booked.getId(), "confirmed");
+
+		Rental stored = rentalRepository.findById(booked.getId()).orElseThrow();
+		assertThat(stored.getStatus()).isEqualTo("CONFIRMED");
+		assertThat(stored.getDepositPaid()).isTrue();
+		assertThat(stored.getTotalPrice()).isEqualByComparingTo("120.00");
+		assertThat(stored.getVersion()).isEqualTo(booked.getVersion() + 2);
+		assertThat(carRepository.findById(car.getId()).orElseThrow().getStatus()).isEqualTo("RENTED");
+
+		// и сохранение сущности целиком не перезаписывает цену
+		stored.setTotalPrice(BigDecimal.ONE);
+		rentalRepository.save(stored);
+		assertThat(rentalRepository.findById(booked.getId()).orElseThrow().getTotalPrice()).isEqualByComparingTo("120.00");
+	}
+
+	@Test
+	void tooLongRentalIsRejectedBeforeBooking() {
+		Rental rental = new Rental();
+		rental.setStartDate(LocalDate.now().plusDays(1));
+		rental.setEndDate(LocalDate.now().plusDays(400));
+
+		assertThatThrownBy(() -> rentalService.createRental(car.getId(), client.getId(), rental))
+				.hasMessageContaining("365");
+		assertThat(rentalRepository.findByCarId(car.getId())).isEmpty();
+	}
+
+	@Test
+	void unknownRentalStatusUpdateFails() {
+		assertThatThrownBy(() -> rentalService.updateRentalStatus(-1L, "CONFIRMED"))
+				.hasMessage("Rental not found");
+	}
+}
@@ -0,0 +1,136 @@
+package com.example.rentapp.service;
+
+import com.example.rentapp.entity.Car;
+import com.example.rentapp.entity.Rental;
+import com.example.rentapp.entity.User;
+import com.example.rentapp.repository.CarRepository;
+import com.example.rentapp.repository.RentalRepository;
+import com.example.rentapp.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RentalServiceConcurrencyTest {
+
+	private static final int CARS = 5;
+	private static final int ATTEMPTS = 400;
+	private static final int THREADS = 32;
+
+	@Autowired
+	private RentalService rentalService;
+
+	@Autowired
+	private CarRepository carRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RentalRepository rentalRepository;
+
+	private final List<Car> cars = new ArrayList<>();
+	private User client;
+
+	@BeforeEach
+	void setUp() {
+		client = new User();
+		client.setUsername("stress-client");
+		client.setPassword("$2a$10$stress");
+		client.setEmail("stress@rentapp.com");
+		client.setRole("CLIENT");
+		client = userRepository.save(client);
+
+		for (int i = 0; i < CARS; i++) {
+			Car car = new Car();
+			car.setBrand("Brand" + i);
+			car.setModel("Model" + i);
+			car.setYear(2023);
+			car.setPricePerDay(new BigDecimal("40.00"));
+			cars.add(carRepository.save(car));
+		}
+	}
+
+	// база H2 общая для всех тестовых контекстов: удаляются только строки, созданные этим тестом
+	@AfterEach
+	void tearDown() {
+		for (Car car : cars) {
+			rentalRepository.deleteAll(rentalRepository.findByCarId(car.getId()));
+		}
+		carRepository.deleteAll(cars);
+		userRepository.deleteById(client.getId());
+		cars.clear();
+	}
+
+	@Test
+	void concurrentBookingsNeverOverlap() throws Exception {
+		LocalDate start = LocalDate.now().plusDays(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch startSignal = new CountDownLatch(1);
+		AtomicInteger booked = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+
+		for (int i = 0; i < ATTEMPTS; i++) {
+			Long carId = cars.get(i % CARS).getId();
+			// каждая попытка пересекается хотя бы с одной другой попыткой для той же машины
+			int offset = (i / CARS) % 3;
+			executor.submit(() -> {
+				startSignal.await();
+				Rental rental = new Rental();
+				rental.setStartDate(start.plusDays(offset));
+				rental.setEndDate(start.plusDays(offset + 3));
+				try {
+					rentalService.createRental(carId, client.getId(), rental);
+					booked.incrementAndGet();
+				} catch (RuntimeException e) {
+					rejected.incrementAndGet();
+				}
+				return null;
+			});
+		}
+
+		long began = System.nanoTime();
+		startSignal.countDown();
+		executor.shutdown();
+		assertThat(executor.awaitTermination(60, TimeUnit.SECONDS))
+				.as("все попытки бронирования завершились за отведённое время")
+				.isTrue();
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began);
+
+		assertThat(booked.get() + rejected.get()).isEqualTo(ATTEMPTS);
+		assertThat(booked.get()).isEqualTo(CARS);
+		assertThat(elapsedMillis).isLessThan(30_000);
+
+		for (Car car : cars) {
+			List<Rental> rentals = rentalRepository.findByCarId(car.getId());
+			assertThat(rentals).isNotEmpty();
+			for (int a = 0; a < rentals.size(); a++) {
+				for (int b = a + 1; b < rentals.size(); b++) {
+					Rental first = rentals.get(a);
+					Rental second = rentals.get(b);
+					boolean overlaps = first.getStartDate().isBefore(second.getEndDate())
+							&& second.getStartDate().isBefore(first.getEndDate());
+					assertThat(overlaps)
+							.as("аренды %d и %d автомобиля %d пересекаются", first.getId(), second.getId(), car.getId())
+							.isFalse();
+				}
+			}
+		}
+	}
+}
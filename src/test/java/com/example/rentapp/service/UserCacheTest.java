@@ -0,0 +1,92 @@
+package com.example.rentapp.service;
+
+import com.example.rentapp.config.CacheConfig;
+import com.example.rentapp.dto.CurrentUser;
+import com.example.rentapp.entity.User;
+import com.example.rentapp.repository.UserRepository;
+import com.example.rentapp.security.CustomUserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Кэш текущего пользователя хранит снимок, а не сущность: изменения идут через свежую сущность
+ * и сбрасывают обе записи, userDetails — и под прежним именем после переименования
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserCacheTest {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	private User client;
+
+	@BeforeEach
+	void setUp() {
+		client = new User();
+		client.setUsername("cache-client");
+		client.setPassword("$2a$10$cache");
+		client.setEmail("cache@rentapp.com");
+		client.setFirstName("Old");
+		client.setRole("CLIENT");
+		client = userRepository.save(client);
+
+		CustomUserDetails principal = new CustomUserDetails(client.getId(), client.getUsername(),
+				client.getPassword(), client.getRole());
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+		userRepository.deleteById(client.getId());
+		CacheConfig.clearAll(cacheManager);
+	}
+
+	@Test
+	void profileUpdateReplacesCachedSnapshot() {
+		CurrentUser before = userService.getCurrentUser();
+		assertThat(userService.getCurrentUser()).isSameAs(before);
+
+		userService.updateProfile(client.getId(), "New", "Name", "new@rentapp.com", null);
+
+		CurrentUser after = userService.getCurrentUser();
+		assertThat(before.getFirstName()).isEqualTo("Old");
+		assertThat(after.getFullName()).isEqualTo("New Name");
+		assertThat(after.getEmail()).isEqualTo("new@rentapp.com");
+	}
+
+	@Test
+	void renameEvictsUserDetailsUnderOldUsername() {
+		userDetailsCache().put("cache-client", new CustomUserDetails(client.getId(), "cache-client",
+				client.getPassword(), client.getRole()));
+
+		User renamed = userRepository.findById(client.getId()).orElseThrow();
+		renamed.setUsername("cache-client-renamed");
+		userService.save(renamed);
+
+		assertThat(userDetailsCache().get("cache-client")).isNull();
+		assertThat(userService.getCurrentUser().getUsername()).isEqualTo("cache-client-renamed");
+	}
+
+	private Cache userDetailsCache() {
+		return cacheManager.getCache(CacheConfig.USER_DETAILS);
+	}
+}
@@ -0,0 +1,20 @@
+package com.example.rentapp.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Не больше value SQL-выражений за тело теста (без @BeforeEach/@AfterEach); на одном запросе MockMvc —
+ * бюджет этого запроса. Превышение роняет тест со списком отпечатков выражений (QueryBudgetExtension).
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface MaxQueries {
+
+	int value();
+}
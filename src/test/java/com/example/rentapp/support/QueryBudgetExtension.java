@@ -0,0 +1,46 @@
+package com.example.rentapp.support;
+
+import com.example.rentapp.config.SqlStatementCounter;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import java.util.Map;
+
+/**
+ * Считает SQL-выражения, выполненные в потоке теста (MockMvc выполняет запрос в нём же),
+ * и сверяет их число с {@link MaxQueries}
+ */
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+	private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+
+	@Override
+	public void beforeTestExecution(ExtensionContext context) {
+		context.getStore(NAMESPACE).put(context.getUniqueId(), SqlStatementCounter.open(true));
+	}
+
+	@Override
+	public void afterTestExecution(ExtensionContext context) {
+		try (SqlStatementCounter.Scope scope = context.getStore(NAMESPACE)
+				.remove(context.getUniqueId(), SqlStatementCounter.Scope.class)) {
+			int budget = budget(context);
+			if (scope.count() > budget) {
+				StringBuilder message = new StringBuilder()
+						.append(scope.count()).append(" SQL-выражений при бюджете ").append(budget).append(':');
+				for (Map.Entry<String, Long> entry : SqlStatementCounter.fingerprints(scope.statements()).entrySet()) {
+					message.append("\n  ").append(entry.getValue()).append(" × ").append(entry.getKey());
+				}
+				throw new AssertionError(message.toString());
+			}
+		}
+	}
+
+	private static int budget(ExtensionContext context) {
+		return AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), MaxQueries.class)
+				.or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), MaxQueries.class))
+				.map(MaxQueries::value)
+				.orElseThrow();
+	}
+}